@@ -79,6 +79,7 @@ public class AuthService {
         return savedUser;
     }
 
+    @Transactional
     public User updateUser(Long userId, UpdateRequest request) {
         User user = userRepository.findById(userId)
             .orElseThrow(() -> new IllegalArgumentException("User not found"));
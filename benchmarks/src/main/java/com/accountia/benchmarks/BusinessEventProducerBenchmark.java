@@ -0,0 +1,80 @@
+package com.accountia.benchmarks;
+
+import com.accountia.business.entity.Business;
+import com.accountia.business.messaging.BusinessEventProducer;
+import com.accountia.business.messaging.RabbitPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construction des payloads (Map) des événements business : le RabbitPublisher est remplacé par un
+ * puits qui consomme le payload, seul le travail de BusinessEventProducer est mesuré.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BusinessEventProducerBenchmark {
+
+    // Publisher sans broker : le payload part dans le Blackhole JMH
+    static final class SinkPublisher extends RabbitPublisher {
+
+        private Blackhole blackhole;
+
+        SinkPublisher() {
+            super(new RabbitTemplate(),
+                    new StaticListableBeanFactory().getBeanProvider(BatchingRabbitTemplate.class),
+                    new SimpleMeterRegistry(), 1, 0, 0);
+        }
+
+        @Override
+        public void send(String exchange, String routingKey, Object payload) {
+            blackhole.consume(routingKey);
+            blackhole.consume(payload);
+        }
+    }
+
+    private SinkPublisher publisher;
+    private BusinessEventProducer producer;
+    private Business business;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        publisher = new SinkPublisher();
+        publisher.blackhole = blackhole;
+        producer = new BusinessEventProducer(publisher);
+
+        business = new Business();
+        business.setId(42L);
+        business.setNom("Boulangerie du Centre");
+        business.setSecteur("Commerce");
+        business.setAdresse("12 rue de la République, Tunis");
+        business.setSiret("12345678900012");
+        business.setEmail("contact@boulangerie.tn");
+        business.setOwnerUserId(7L);
+        business.setOwnerSubject("5f1c2a9e-7b7d-4c1e-9a55-2f0d3c8e1b42");
+    }
+
+    @Benchmark
+    public void publishCreated() {
+        producer.publishBusinessCreated(business);
+    }
+
+    @Benchmark
+    public void publishUpdated() {
+        producer.publishBusinessUpdated(business);
+    }
+
+    @Benchmark
+    public void publishDeleted() {
+        producer.publishBusinessDeleted(business.getId());
+    }
+}
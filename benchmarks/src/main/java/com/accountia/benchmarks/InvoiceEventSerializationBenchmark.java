@@ -0,0 +1,90 @@
+package com.accountia.benchmarks;
+
+import com.accountia.invoice.dto.InvoiceDTO;
+import com.accountia.invoice.dto.InvoiceEventEnvelope;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * (Dé)sérialisation des événements facture par le {@link Jackson2JsonMessageConverter}
+ * configuré dans le RabbitMQConfig d'invoice-ms : événement unitaire (CREATED, avec la facture)
+ * et événement groupé (OVERDUE, {@code batchSize} ids).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvoiceEventSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    private int batchSize;
+
+    private Jackson2JsonMessageConverter converter;
+    private InvoiceEventEnvelope created;
+    private InvoiceEventEnvelope overdue;
+    private Message createdMessage;
+    private Message overdueMessage;
+
+    @Setup
+    public void setup() {
+        converter = new Jackson2JsonMessageConverter();
+        // Côté consommateur, le package des DTO doit être déclaré de confiance pour suivre __TypeId__
+        DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setTrustedPackages("com.accountia.invoice.dto");
+        converter.setJavaTypeMapper(typeMapper);
+
+        InvoiceDTO invoice = new InvoiceDTO();
+        invoice.setId(42L);
+        invoice.setTenantId("tenant-1");
+        invoice.setClientName("Société Générale des Travaux");
+        invoice.setAmount(1249.90);
+        invoice.setDescription("Prestation de conseil - octobre");
+        invoice.setIssueDate(LocalDate.of(2026, 10, 1));
+        invoice.setDueDate(LocalDate.of(2026, 10, 31));
+        invoice.setStatus("SENT");
+        invoice.setOwnerSubject("5f1c2a9e-7b7d-4c1e-9a55-2f0d3c8e1b42");
+        invoice.setVersion(3L);
+        created = InvoiceEventEnvelope.created(invoice);
+
+        List<Long> ids = new ArrayList<>(batchSize);
+        List<Long> versions = new ArrayList<>(batchSize);
+        for (long id = 1; id <= batchSize; id++) {
+            ids.add(id);
+            versions.add(2L);
+        }
+        overdue = InvoiceEventEnvelope.overdue(ids, versions);
+
+        createdMessage = converter.toMessage(created, new MessageProperties());
+        overdueMessage = converter.toMessage(overdue, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message serializeCreated() {
+        return converter.toMessage(created, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object deserializeCreated() {
+        return converter.fromMessage(createdMessage);
+    }
+
+    @Benchmark
+    public Message serializeOverdueBatch() {
+        return converter.toMessage(overdue, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object deserializeOverdueBatch() {
+        return converter.fromMessage(overdueMessage);
+    }
+}
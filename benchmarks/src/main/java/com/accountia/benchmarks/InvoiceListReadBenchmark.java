@@ -0,0 +1,150 @@
+package com.accountia.benchmarks;
+
+import com.accountia.invoice.dto.InvoiceView;
+import com.accountia.invoice.model.Invoice;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page de la liste des factures d'un propriétaire (keyset sur id décroissant), lue par Hibernate sur H2
+ * en mémoire avec {@code rows} factures réparties sur {@code owners} propriétaires.
+ *
+ * {@code entities} : entités gérées dans une transaction lecture-écriture (avant user-014), avec copie
+ * pour le dirty checking et flush au commit. {@code projections} : {@code select new InvoiceView} dans
+ * une session en lecture seule sans flush, comme {@code findByOwnerSubjectAndIdLessThanOrderByIdDesc}.
+ * À lancer avec {@code -prof gc} pour les allocations par page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx3g")
+public class InvoiceListReadBenchmark {
+
+    private static final String ENTITY_QUERY =
+            "SELECT i FROM Invoice i WHERE i.ownerSubject = :owner AND i.id < :id ORDER BY i.id DESC";
+
+    private static final String VIEW_QUERY =
+            "SELECT new com.accountia.invoice.dto.InvoiceView(i.id, i.tenantId, i.invoiceNumber, i.clientName,"
+                    + " i.amount, i.description, i.issueDate, i.dueDate, i.status, i.ownerSubject, i.version)"
+                    + " FROM Invoice i WHERE i.ownerSubject = :owner AND i.id < :id ORDER BY i.id DESC";
+
+    private static final String INSERT_SQL = "INSERT INTO invoices (id, tenant_id, invoice_number, client_name, amount,"
+            + " description, issue_date, due_date, status, owner_subject, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private static final String[] STATUSES = {"DRAFT", "SENT", "PAID", "OVERDUE", "CANCELLED"};
+
+    @Param({"1000000"})
+    private int rows;
+
+    @Param({"1000"})
+    private int owners;
+
+    @Param({"50", "200"})
+    private int pageSize;
+
+    private StandardServiceRegistry registry;
+    private SessionFactory sessionFactory;
+    private int nextOwner;
+
+    @Setup
+    public void setup() throws SQLException {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:invoices;DB_CLOSE_DELAY=-1;MODE=MYSQL");
+        dataSource.setUser("sa");
+
+        // Même nommage des colonnes que Spring Boot (client_name, owner_subject...)
+        registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DATASOURCE, dataSource)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "create")
+                .applySetting(AvailableSettings.PHYSICAL_NAMING_STRATEGY, new CamelCaseToUnderscoresNamingStrategy())
+                .build();
+        sessionFactory = new MetadataSources(registry)
+                .addAnnotatedClass(Invoice.class)
+                .buildMetadata()
+                .buildSessionFactory();
+
+        try (Connection con = dataSource.getConnection();
+             PreparedStatement ps = con.prepareStatement(INSERT_SQL)) {
+            con.setAutoCommit(false);
+            LocalDate issueDate = LocalDate.of(2026, 1, 1);
+            for (int i = 1; i <= rows; i++) {
+                ps.setLong(1, i);
+                ps.setString(2, "tenant-" + (i % 8));
+                ps.setString(3, "F-2026-" + i);
+                ps.setString(4, "Client " + (i % 5000));
+                ps.setDouble(5, (i % 100_000) / 100.0);
+                ps.setString(6, "Prestation " + i);
+                ps.setDate(7, Date.valueOf(issueDate.plusDays(i % 365)));
+                ps.setDate(8, Date.valueOf(issueDate.plusDays(i % 365 + 30)));
+                ps.setString(9, STATUSES[i % STATUSES.length]);
+                ps.setString(10, "owner-" + (i % owners));
+                ps.addBatch();
+                if (i % 10_000 == 0) {
+                    ps.executeBatch();
+                    con.commit();
+                }
+            }
+            ps.executeBatch();
+            con.commit();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+
+    @Benchmark
+    public List<Invoice> entities() {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            List<Invoice> page = session.createSelectionQuery(ENTITY_QUERY, Invoice.class)
+                    .setParameter("owner", nextOwner())
+                    .setParameter("id", Long.MAX_VALUE)
+                    .setMaxResults(pageSize + 1)
+                    .getResultList();
+            session.getTransaction().commit();
+            return page;
+        }
+    }
+
+    @Benchmark
+    public List<InvoiceView> projections() {
+        try (Session session = sessionFactory.openSession()) {
+            session.setDefaultReadOnly(true);
+            session.setHibernateFlushMode(FlushMode.MANUAL);
+            session.beginTransaction();
+            List<InvoiceView> page = session.createSelectionQuery(VIEW_QUERY, InvoiceView.class)
+                    .setParameter("owner", nextOwner())
+                    .setParameter("id", Long.MAX_VALUE)
+                    .setMaxResults(pageSize + 1)
+                    .getResultList();
+            session.getTransaction().commit();
+            return page;
+        }
+    }
+
+    private String nextOwner() {
+        nextOwner = (nextOwner + 1) % owners;
+        return "owner-" + nextOwner;
+    }
+}
@@ -0,0 +1,110 @@
+package com.accountia.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Validation et lecture des claims d'un jeton HS256 par le JwtUtil de chaque service.
+ * auth, business et client exposent {@code parseClaims} ; invoice et expense n'ont pas d'équivalent,
+ * leur lecture de claims est {@code extractUserId} (une vérification de signature + lecture d'un claim).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyThatIsAtLeast32BytesLong";
+    private static final long EXPIRATION_MS = 3_600_000L;
+    private static final String SUBJECT = "jean.dupont@accountia.tn";
+    private static final Map<String, Object> CLAIMS = Map.of(
+            "userId", "42",
+            "username", "jdupont",
+            "tenant_id", "tenant-1",
+            "realm_access", Map.of("roles", List.of("USER", "offline_access")));
+
+    @Param({"auth", "business", "client", "expense", "invoice"})
+    private String service;
+
+    private Predicate<String> validate;
+    private Function<String, Object> parse;
+    private String token;
+    private String tamperedToken;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        switch (service) {
+            case "auth" -> {
+                var util = new com.accountia.auth.util.JwtUtil(SECRET, EXPIRATION_MS);
+                token = util.generateTokenWithClaims(SUBJECT, CLAIMS);
+                validate = util::validateToken;
+                parse = util::parseClaims;
+            }
+            case "business" -> {
+                var util = new com.accountia.business.util.JwtUtil(SECRET, EXPIRATION_MS);
+                token = util.generateTokenWithClaims(SUBJECT, CLAIMS);
+                validate = util::validateToken;
+                parse = util::parseClaims;
+            }
+            case "client" -> {
+                var util = new com.accountia.client.util.JwtUtil(SECRET, EXPIRATION_MS);
+                token = util.generateTokenWithClaims(SUBJECT, CLAIMS);
+                validate = util::validateToken;
+                parse = util::parseClaims;
+            }
+            case "expense" -> {
+                var util = new com.accountia.expense.util.JwtUtil();
+                inject(util, "jwtSecret", SECRET);
+                inject(util, "jwtExpiration", EXPIRATION_MS);
+                token = util.generateToken(SUBJECT, "42", "jdupont");
+                validate = util::validateToken;
+                parse = util::extractUserId;
+            }
+            case "invoice" -> {
+                var util = new com.accountia.invoice.util.JwtUtil();
+                inject(util, "jwtSecret", SECRET);
+                inject(util, "jwtExpiration", EXPIRATION_MS);
+                token = util.generateToken(SUBJECT, "42", "jdupont");
+                validate = util::validateToken;
+                parse = util::extractUserId;
+            }
+            default -> throw new IllegalArgumentException("Service inconnu : " + service);
+        }
+        // Signature altérée : chemin d'échec de validateToken (exception interceptée)
+        char last = token.charAt(token.length() - 1);
+        tamperedToken = token.substring(0, token.length() - 1) + (last == 'A' ? 'B' : 'A');
+        if (!validate.test(token) || validate.test(tamperedToken)) {
+            throw new IllegalStateException("Jetons de référence incohérents pour " + service);
+        }
+    }
+
+    // invoice-ms et expense-ms reçoivent leur secret par injection de champ (@Value)
+    private static void inject(Object target, String fieldName, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(fieldName);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return validate.test(token);
+    }
+
+    @Benchmark
+    public boolean validateTamperedToken() {
+        return validate.test(tamperedToken);
+    }
+
+    @Benchmark
+    public Object parseClaims() {
+        return parse.apply(token);
+    }
+}
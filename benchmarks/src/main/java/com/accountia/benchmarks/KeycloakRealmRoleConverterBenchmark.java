@@ -0,0 +1,53 @@
+package com.accountia.benchmarks;
+
+import com.example.api_gateway.config.KeycloakRealmRoleConverter;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion des rôles realm Keycloak en autorités ROLE_*, faite par la gateway pour chaque requête.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeycloakRealmRoleConverterBenchmark {
+
+    @Param({"4", "32"})
+    private int roleCount;
+
+    private KeycloakRealmRoleConverter converter;
+    private Jwt jwt;
+
+    @Setup
+    public void setup() {
+        converter = new KeycloakRealmRoleConverter();
+        List<String> roles = new ArrayList<>(roleCount);
+        roles.add("USER");
+        roles.add("offline_access");
+        roles.add("uma_authorization");
+        for (int i = roles.size(); i < roleCount; i++) roles.add("role_" + i);
+        jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("5f1c2a9e-7b7d-4c1e-9a55-2f0d3c8e1b42")
+                .claim("realm_access", Map.of("roles", roles))
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+    }
+
+    @Benchmark
+    public Collection<GrantedAuthority> convert() {
+        return converter.convert(jwt);
+    }
+}
@@ -0,0 +1,92 @@
+package com.accountia.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SecurityUtil.isAdmin / getCurrentSubject, appelés plusieurs fois par requête dans chaque service.
+ * Le contexte porte un JwtAuthenticationToken Keycloak ; {@code role} choisit un administrateur
+ * (reconnu par l'autorité ROLE_ADMIN), ou un utilisateur pour qui isAdmin parcourt aussi realm_access.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SecurityUtilBenchmark {
+
+    @Param({"ADMIN", "USER"})
+    private String role;
+
+    // Scope.Thread : le setup s'exécute sur le thread du benchmark, propriétaire du SecurityContext
+    @Setup
+    public void setup() {
+        List<String> realmRoles = List.of(role, "offline_access", "uma_authorization", "default-roles-accountia");
+        Jwt jwt = Jwt.withTokenValue("token")
+                .header("alg", "RS256")
+                .subject("5f1c2a9e-7b7d-4c1e-9a55-2f0d3c8e1b42")
+                .claim("realm_access", Map.of("roles", realmRoles))
+                .claim("tenant_id", "tenant-1")
+                .issuedAt(Instant.now())
+                .expiresAt(Instant.now().plusSeconds(3600))
+                .build();
+        List<SimpleGrantedAuthority> authorities = realmRoles.stream()
+                .map(r -> new SimpleGrantedAuthority("ROLE_" + r))
+                .toList();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt, authorities));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public boolean invoiceIsAdmin() {
+        return com.accountia.invoice.util.SecurityUtil.isAdmin();
+    }
+
+    @Benchmark
+    public String invoiceGetCurrentSubject() {
+        return com.accountia.invoice.util.SecurityUtil.getCurrentSubject();
+    }
+
+    @Benchmark
+    public boolean businessIsAdmin() {
+        return com.accountia.business.util.SecurityUtil.isAdmin();
+    }
+
+    @Benchmark
+    public String businessGetCurrentSubject() {
+        return com.accountia.business.util.SecurityUtil.getCurrentSubject();
+    }
+
+    @Benchmark
+    public boolean clientIsAdmin() {
+        return com.accountia.client.util.SecurityUtil.isAdmin();
+    }
+
+    @Benchmark
+    public String clientGetCurrentSubject() {
+        return com.accountia.client.util.SecurityUtil.getCurrentSubject();
+    }
+
+    @Benchmark
+    public boolean expenseIsAdmin() {
+        return com.accountia.expense.util.SecurityUtil.isAdmin();
+    }
+
+    @Benchmark
+    public String expenseGetCurrentSubject() {
+        return com.accountia.expense.util.SecurityUtil.getCurrentSubject();
+    }
+}
@@ -1,13 +1,23 @@
 package com.accountia.business.config;
 
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * RabbitMQ configuration for Business Service.
@@ -22,6 +32,7 @@ public class RabbitMQConfig {
     // Queue names
     public static final String BUSINESS_QUEUE = "business.queue";
     public static final String BUSINESS_INVOICE_QUEUE = "business.invoice.queue";
+    public static final String BUSINESS_CLIENT_QUEUE = "business.client.queue";
     public static final String BUSINESS_DLQ = "business.dlq";
     
     // Routing keys
@@ -31,6 +42,13 @@ public class RabbitMQConfig {
     public static final String BUSINESS_DELETED_ROUTING_KEY = "business.deleted";
     public static final String INVOICE_CREATED_ROUTING_KEY = "invoice.created";
     public static final String INVOICE_UPDATED_ROUTING_KEY = "invoice.updated";
+    public static final String INVOICE_DELETED_ROUTING_KEY = "invoice.deleted";
+    public static final String INVOICE_OVERDUE_ROUTING_KEY = "invoice.overdue";
+    public static final String INVOICE_STATUS_CHANGED_ROUTING_KEY = "invoice.status.changed";
+    public static final String CLIENT_ROUTING_KEY = "client.#";
+
+    // Conteneur des consommateurs par lots
+    public static final String INVOICE_BATCH_CONTAINER_FACTORY = "invoiceBatchContainerFactory";
 
     /**
      * Topic exchange for all Accountia events.
@@ -68,6 +86,18 @@ public class RabbitMQConfig {
             .build();
     }
 
+    /**
+     * Queue des événements client-ms, source de la copie locale des clients.
+     */
+    @Bean
+    public Queue businessClientQueue() {
+        return QueueBuilder
+            .durable(BUSINESS_CLIENT_QUEUE)
+            .withArgument("x-dead-letter-exchange", "")
+            .withArgument("x-dead-letter-routing-key", BUSINESS_DLQ)
+            .build();
+    }
+
     /**
      * Dead letter queue for failed messages.
      */
@@ -114,6 +144,87 @@ public class RabbitMQConfig {
             .with(INVOICE_UPDATED_ROUTING_KEY);
     }
 
+    /**
+     * Binding for invoice deleted events.
+     */
+    @Bean
+    public Binding invoiceDeletedBinding(@Qualifier("businessInvoiceQueue") Queue businessInvoiceQueue,
+                                          @Qualifier("accountiaExchange") TopicExchange accountiaExchange) {
+        return BindingBuilder
+            .bind(businessInvoiceQueue)
+            .to(accountiaExchange)
+            .with(INVOICE_DELETED_ROUTING_KEY);
+    }
+
+    /**
+     * Passages en retard groupés : statut appliqué aux factures déjà connues des statistiques.
+     */
+    @Bean
+    public Binding invoiceOverdueBinding(@Qualifier("businessInvoiceQueue") Queue businessInvoiceQueue,
+                                          @Qualifier("accountiaExchange") TopicExchange accountiaExchange) {
+        return BindingBuilder
+            .bind(businessInvoiceQueue)
+            .to(accountiaExchange)
+            .with(INVOICE_OVERDUE_ROUTING_KEY);
+    }
+
+    /**
+     * Changements de statut groupés.
+     */
+    @Bean
+    public Binding invoiceStatusChangedBinding(@Qualifier("businessInvoiceQueue") Queue businessInvoiceQueue,
+                                                @Qualifier("accountiaExchange") TopicExchange accountiaExchange) {
+        return BindingBuilder
+            .bind(businessInvoiceQueue)
+            .to(accountiaExchange)
+            .with(INVOICE_STATUS_CHANGED_ROUTING_KEY);
+    }
+
+    /**
+     * Binding for client events (created, updated, deleted).
+     */
+    @Bean
+    public Binding clientEventsBinding(@Qualifier("businessClientQueue") Queue businessClientQueue,
+                                        @Qualifier("accountiaExchange") TopicExchange accountiaExchange) {
+        return BindingBuilder
+            .bind(businessClientQueue)
+            .to(accountiaExchange)
+            .with(CLIENT_ROUTING_KEY);
+    }
+
+    /**
+     * Conteneur par lots des événements facture : jusqu'à {@code batch-size} messages remis ensemble
+     * à l'écouteur (moins si la file reste vide {@code receive-timeout-ms}). Acquittement automatique
+     * du lot après l'écouteur ; en cas d'échec le lot est rejoué, puis rejeté vers la DLQ.
+     */
+    @Bean(INVOICE_BATCH_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory invoiceBatchContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${business.stats.consumer.batch-size:500}") int batchSize,
+            @Value("${business.stats.consumer.receive-timeout-ms:200}") long receiveTimeoutMs,
+            @Value("${business.stats.consumer.prefetch:1000}") int prefetch,
+            @Value("${business.stats.consumer.concurrency:1}") int concurrency) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(false);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+            .maxAttempts(3)
+            .backOffOptions(1000, 2, 10000)
+            .recoverer((MessageBatchRecoverer) (messages, cause) -> {
+                throw new AmqpRejectAndDontRequeueException(
+                    "Lot de " + messages.size() + " événements facture rejeté", cause);
+            })
+            .build());
+        return factory;
+    }
+
     /**
      * JSON message converter for RabbitMQ.
      */
@@ -124,11 +235,33 @@ public class RabbitMQConfig {
 
     /**
      * RabbitTemplate with JSON message converter.
+     * Mandatory : les messages non routés sont renvoyés et comptés par RabbitPublisher.
      */
     @Bean
+    @Primary
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
+
+    /**
+     * Agrégation des événements en lots, activée par accountia.rabbitmq.publisher.batching.enabled.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "accountia.rabbitmq.publisher.batching.enabled", havingValue = "true")
+    public BatchingRabbitTemplate batchingRabbitTemplate(
+            ConnectionFactory connectionFactory,
+            @Value("${accountia.rabbitmq.publisher.batching.size:100}") int batchSize,
+            @Value("${accountia.rabbitmq.publisher.batching.buffer-limit:65536}") int bufferLimit,
+            @Value("${accountia.rabbitmq.publisher.batching.timeout-ms:50}") long timeoutMs) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("rabbit-batch-");
+        scheduler.initialize();
+        BatchingRabbitTemplate template = new BatchingRabbitTemplate(connectionFactory,
+                new SimpleBatchingStrategy(batchSize, bufferLimit, timeoutMs), scheduler);
+        template.setMessageConverter(jsonMessageConverter());
+        return template;
+    }
 }
@@ -0,0 +1,74 @@
+package com.accountia.business.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Pools primaire et réplique derrière un DataSource de routage, actif avec
+ * {@code accountia.datasource.replica.enabled=true}. Sinon Spring Boot garde son pool unique.
+ *
+ * Le primaire reprend {@code spring.datasource.*} ; la réplique a son URL, ses identifiants et
+ * ses réglages Hikari sous {@code accountia.datasource.replica}.
+ */
+@Configuration
+@ConditionalOnProperty(name = "accountia.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("accountia.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${accountia.datasource.replica.url:}") String url,
+                                              @Value("${accountia.datasource.replica.username:${spring.datasource.username:}}") String username,
+                                              @Value("${accountia.datasource.replica.password:${spring.datasource.password:}}") String password) {
+        if (url.isBlank()) {
+            throw new IllegalStateException("accountia.datasource.replica.url est requis quand la réplique est activée");
+        }
+        return DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 @Value("${accountia.datasource.read-your-writes:5s}") Duration readYourWrites) {
+        ReadReplicaRoutingDataSource routing =
+                new ReadReplicaRoutingDataSource(primaryDataSource, replicaDataSource, readYourWrites);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    // Avec open-in-view, Hibernate garderait la connexion pour toute la requête HTTP :
+    // on la rend à la fin de chaque transaction pour que la suivante soit routée à nouveau
+    @Bean
+    public HibernatePropertiesCustomizer releaseConnectionAfterTransaction() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
@@ -1,12 +1,18 @@
 package com.accountia.business.controller;
 
+import com.accountia.business.dto.BusinessPage;
 import com.accountia.business.dto.BusinessRequest;
+import com.accountia.business.dto.BusinessRevenueStats;
 import com.accountia.business.dto.BusinessWithClientsDTO;
 import com.accountia.business.dto.ClientDTO;
 import com.accountia.business.entity.Business;
 import com.accountia.business.service.BusinessService;
+import com.accountia.business.service.BusinessStatsService;
+import com.accountia.business.service.BusinessVersionService;
 import com.accountia.business.util.SecurityUtil;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -21,18 +27,27 @@ import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/business")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {BusinessController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class BusinessController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final BusinessService businessService;
+    private final BusinessVersionService businessVersionService;
+    private final BusinessStatsService businessStatsService;
 
-    public BusinessController(BusinessService businessService) {
+    public BusinessController(BusinessService businessService, BusinessVersionService businessVersionService,
+                              BusinessStatsService businessStatsService) {
         this.businessService = businessService;
+        this.businessVersionService = businessVersionService;
+        this.businessStatsService = businessStatsService;
     }
 
     @GetMapping("/health")
@@ -45,12 +60,14 @@ public class BusinessController {
      * Lister tous les businesses
      */
     @GetMapping("/businesses")
-    public ResponseEntity<List<Business>> getAll() {
-        List<Business> list = businessService.getAll();
-        if (list.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.ok(list);
+    public ResponseEntity<List<Business>> getAll(WebRequest request) {
+        return conditional(request, () -> {
+            List<Business> list = businessService.getAll();
+            if (list.isEmpty()) {
+                return ResponseEntity.noContent().build();
+            }
+            return ResponseEntity.ok(list);
+        });
     }
 
     /**
@@ -69,11 +86,8 @@ public class BusinessController {
      * Récupérer un business par ID avec ses clients
      */
     @GetMapping("/businesses/{id}/with-clients")
-    public ResponseEntity<BusinessWithClientsDTO> getByIdWithClients(
-            @PathVariable Long id,
-            @RequestHeader(value = "Authorization", required = false) String authHeader) {
-
-        BusinessWithClientsDTO business = businessService.getByIdWithClients(id, authHeader);
+    public ResponseEntity<BusinessWithClientsDTO> getByIdWithClients(@PathVariable Long id) {
+        BusinessWithClientsDTO business = businessService.getByIdWithClients(id);
         if (business == null) {
             return ResponseEntity.notFound().build();
         }
@@ -81,29 +95,46 @@ public class BusinessController {
     }
 
     /**
-     * GET /api/business/businesses/search?nom=Tech
-     * Recherche par nom
+     * GET /api/business/businesses/{id}/stats?from=2025-01&to=2025-12
+     * Chiffre d'affaires mensuel du business (facturé, encaissé, restant dû) ; par défaut les douze derniers mois
+     */
+    @GetMapping("/businesses/{id}/stats")
+    public ResponseEntity<BusinessRevenueStats> getStats(@PathVariable Long id,
+                                                         @RequestParam(required = false) String from,
+                                                         @RequestParam(required = false) String to) {
+        return businessService.getById(id)
+                .map(business -> ResponseEntity.ok(businessStatsService.getStats(business, from, to)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * GET /api/business/businesses/search?nom=Tech&mode=prefix&cursor=...&size=50
+     * Recherche par nom : mode=contains (défaut) ou prefix (début du nom, indexé)
      */
     @GetMapping("/businesses/search")
-    public ResponseEntity<List<Business>> searchByNom(@RequestParam String nom) {
-        List<Business> list = businessService.searchByNom(nom);
-        if (list.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.ok(list);
+    public ResponseEntity<List<Business>> searchByNom(@RequestParam String nom,
+                                                      @RequestParam(defaultValue = "contains") String mode,
+                                                      @RequestParam(required = false) String cursor,
+                                                      @RequestParam(required = false) Integer size,
+                                                      WebRequest request) {
+        boolean prefix = switch (mode) {
+            case "contains" -> false;
+            case "prefix" -> true;
+            default -> throw new IllegalArgumentException("mode invalide : " + mode + " (attendu : contains, prefix)");
+        };
+        return conditional(request, () -> toResponse(businessService.searchByNom(nom, prefix, cursor, size)));
     }
 
     /**
-     * GET /api/business/businesses/secteur/{secteur}
+     * GET /api/business/businesses/secteur/{secteur}?cursor=...&size=50
      * Filtrer par secteur
      */
     @GetMapping("/businesses/secteur/{secteur}")
-    public ResponseEntity<List<Business>> getBySecteur(@PathVariable String secteur) {
-        List<Business> list = businessService.getBySecteur(secteur);
-        if (list.isEmpty()) {
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.ok(list);
+    public ResponseEntity<List<Business>> getBySecteur(@PathVariable String secteur,
+                                                       @RequestParam(required = false) String cursor,
+                                                       @RequestParam(required = false) Integer size,
+                                                       WebRequest request) {
+        return conditional(request, () -> toResponse(businessService.getBySecteur(secteur, cursor, size)));
     }
 
     /**
@@ -177,4 +208,31 @@ public class BusinessController {
         }
         return ResponseEntity.ok(clients);
     }
-}
\ No newline at end of file
+
+    // Lecture conditionnelle : si le If-None-Match correspond à la version courante du
+    // propriétaire, 304 sans lire la base ni sérialiser la réponse
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<ResponseEntity<T>> read) {
+        return businessVersionService.readWithETag(etag -> {
+            if (etag == null) return read.get();
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).<T>build();
+            }
+            ResponseEntity<T> response = read.get();
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(response.getHeaders())
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(response.getBody());
+        });
+    }
+
+    // La page suivante est indiquée par l'en-tête X-Next-Cursor (absent sur la dernière page)
+    private ResponseEntity<List<Business>> toResponse(BusinessPage page) {
+        if (page.isEmpty()) return ResponseEntity.noContent().build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+}
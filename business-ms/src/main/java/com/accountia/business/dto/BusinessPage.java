@@ -0,0 +1,30 @@
+package com.accountia.business.dto;
+
+import com.accountia.business.entity.Business;
+
+import java.util.List;
+
+/**
+ * Une page d'une liste d'entreprises paginée par keyset.
+ * {@code nextCursor} vaut null quand il n'y a plus de page suivante.
+ */
+public class BusinessPage {
+
+    private final List<Business> items;
+    private final String nextCursor;
+
+    public BusinessPage(List<Business> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public static BusinessPage empty() {
+        return new BusinessPage(List.of(), null);
+    }
+
+    public List<Business> getItems() { return items; }
+
+    public String getNextCursor() { return nextCursor; }
+
+    public boolean isEmpty() { return items.isEmpty(); }
+}
@@ -0,0 +1,26 @@
+package com.accountia.business.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Chiffre d'affaires d'un business sur une période : facturé (hors brouillons et annulées),
+ * encaissé (PAID) et restant dû (SENT, OVERDUE), par mois d'émission puis au total.
+ * Les mois sans facture sont omis.
+ */
+public record BusinessRevenueStats(Long businessId,
+                                   String from,
+                                   String to,
+                                   long invoiceCount,
+                                   BigDecimal invoiced,
+                                   BigDecimal paid,
+                                   BigDecimal outstanding,
+                                   List<Month> months) {
+
+    public record Month(String period,
+                        long invoiceCount,
+                        BigDecimal invoiced,
+                        BigDecimal paid,
+                        BigDecimal outstanding) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.accountia.business.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Événement facture publié par invoice-ms (InvoiceEventEnvelope), réduit aux champs utilisés
+ * par les statistiques. {@code invoice} est renseigné pour CREATED / UPDATED ; les événements
+ * groupés (OVERDUE, STATUS_CHANGED) portent {@code invoiceIds}, {@code invoiceVersions} (même ordre)
+ * et, pour le second, {@code status}. Les versions sont le {@code @Version} de la facture après
+ * l'écriture ; elles sont absentes des événements émis avant leur ajout.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record InvoiceEvent(String eventType,
+                           String invoiceId,
+                           Invoice invoice,
+                           List<Long> invoiceIds,
+                           List<Long> invoiceVersions,
+                           String status) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Invoice(Long id,
+                          String ownerSubject,
+                          Double amount,
+                          LocalDate issueDate,
+                          String status,
+                          Long version) {
+    }
+}
@@ -7,7 +7,11 @@ import jakarta.validation.constraints.NotBlank;
 import java.time.Instant;
 
 @Entity
-@Table(name = "businesses")
+@Table(name = "businesses", indexes = {
+        @Index(name = "idx_businesses_owner", columnList = "owner_subject, id"),
+        @Index(name = "idx_businesses_owner_nom", columnList = "owner_subject, nom"),
+        @Index(name = "idx_businesses_nom", columnList = "nom")
+})
 public class Business {
 
     @Id
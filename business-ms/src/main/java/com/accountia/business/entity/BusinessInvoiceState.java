@@ -0,0 +1,66 @@
+package com.accountia.business.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Dernier état connu de chaque facture rattachée à un business : sa part actuelle dans
+ * {@code business_revenue_stats}. Un événement facture se traduit par « retirer l'ancienne part,
+ * ajouter la nouvelle », à condition d'être plus récent que {@code invoiceVersion}. Une facture
+ * supprimée garde une ligne {@code DELETED} qui ne compte plus et écarte ses événements retardataires.
+ */
+@Entity
+@Table(name = "business_invoice_states", indexes = {
+        @Index(name = "idx_invoice_state_business", columnList = "business_id, period_start")
+})
+public class BusinessInvoiceState {
+
+    public static final String TABLE = "business_invoice_states";
+
+    // Identifiant de la facture dans invoice-ms
+    @Id
+    @Column(name = "invoice_id")
+    private Long invoiceId;
+
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "amount_cents", nullable = false)
+    private long amountCents;
+
+    @Column(nullable = false, length = 32)
+    private String status;
+
+    // @Version de la facture dans invoice-ms au dernier événement appliqué (null : inconnue)
+    @Column(name = "invoice_version")
+    private Long invoiceVersion;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public Long getInvoiceId() { return invoiceId; }
+    public void setInvoiceId(Long invoiceId) { this.invoiceId = invoiceId; }
+
+    public Long getBusinessId() { return businessId; }
+    public void setBusinessId(Long businessId) { this.businessId = businessId; }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public long getAmountCents() { return amountCents; }
+    public void setAmountCents(long amountCents) { this.amountCents = amountCents; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public Long getInvoiceVersion() { return invoiceVersion; }
+    public void setInvoiceVersion(Long invoiceVersion) { this.invoiceVersion = invoiceVersion; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
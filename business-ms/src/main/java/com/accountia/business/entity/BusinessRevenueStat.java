@@ -0,0 +1,91 @@
+package com.accountia.business.entity;
+
+import jakarta.persistence.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * Modèle de lecture : chiffre d'affaires d'un business par mois d'émission des factures.
+ * Montants en centimes. Tenu à jour par deltas depuis les événements facture
+ * ({@code BusinessStatsService}), un upsert par (business, mois) et par lot d'événements.
+ */
+@Entity
+@Table(name = "business_revenue_stats")
+@IdClass(BusinessRevenueStat.Key.class)
+public class BusinessRevenueStat {
+
+    public static final String TABLE = "business_revenue_stats";
+
+    @Id
+    @Column(name = "business_id", nullable = false)
+    private Long businessId;
+
+    // Premier jour du mois
+    @Id
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    // Factures émises (hors brouillons et annulées)
+    @Column(name = "invoice_count", nullable = false)
+    private long invoiceCount;
+
+    @Column(name = "invoiced_cents", nullable = false)
+    private long invoicedCents;
+
+    @Column(name = "paid_cents", nullable = false)
+    private long paidCents;
+
+    @Column(name = "outstanding_cents", nullable = false)
+    private long outstandingCents;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    public Long getBusinessId() { return businessId; }
+    public void setBusinessId(Long businessId) { this.businessId = businessId; }
+
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+
+    public long getInvoiceCount() { return invoiceCount; }
+    public void setInvoiceCount(long invoiceCount) { this.invoiceCount = invoiceCount; }
+
+    public long getInvoicedCents() { return invoicedCents; }
+    public void setInvoicedCents(long invoicedCents) { this.invoicedCents = invoicedCents; }
+
+    public long getPaidCents() { return paidCents; }
+    public void setPaidCents(long paidCents) { this.paidCents = paidCents; }
+
+    public long getOutstandingCents() { return outstandingCents; }
+    public void setOutstandingCents(long outstandingCents) { this.outstandingCents = outstandingCents; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+
+    public static class Key implements Serializable {
+        private Long businessId;
+        private LocalDate periodStart;
+
+        public Key() {
+        }
+
+        public Key(Long businessId, LocalDate periodStart) {
+            this.businessId = businessId;
+            this.periodStart = periodStart;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key key && Objects.equals(businessId, key.businessId)
+                    && Objects.equals(periodStart, key.periodStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(businessId, periodStart);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.accountia.business.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Copie locale des clients de client-ms, alimentée par leurs événements (ClientEventConsumer).
+ * Seuls les champs rendus avec un business sont gardés. Le rattachement à un business se fait par
+ * {@code entreprise_key} (nom d'entreprise normalisé), indexé avec le propriétaire.
+ * Une suppression laisse une ligne marquée {@code deleted} : sa révision écarte les événements en retard.
+ */
+@Entity
+@Table(name = "business_client_replicas", indexes = {
+        @Index(name = "idx_client_replica_business", columnList = "entreprise_key, owner_subject")
+})
+public class ClientReplica {
+
+    // Identifiant du client dans client-ms
+    @Id
+    private Integer id;
+
+    @Column(name = "owner_subject")
+    private String ownerSubject;
+
+    @Column(name = "nom_entreprise")
+    private String nomEntreprise;
+
+    @Column(name = "entreprise_key")
+    private String entrepriseKey;
+
+    private String nom;
+    private String prenom;
+    private String email;
+    private String telephone;
+    private String adresse;
+
+    @Column(nullable = false)
+    private long revision;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    // Même normalisation côté business (LOWER(TRIM(nom))) dans ClientReplicaRepository
+    public static String entrepriseKey(String nomEntreprise) {
+        return nomEntreprise == null ? null : nomEntreprise.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public Integer getId() { return id; }
+    public void setId(Integer id) { this.id = id; }
+
+    public String getOwnerSubject() { return ownerSubject; }
+    public void setOwnerSubject(String ownerSubject) { this.ownerSubject = ownerSubject; }
+
+    public String getNomEntreprise() { return nomEntreprise; }
+    public void setNomEntreprise(String nomEntreprise) {
+        this.nomEntreprise = nomEntreprise;
+        this.entrepriseKey = entrepriseKey(nomEntreprise);
+    }
+
+    public String getEntrepriseKey() { return entrepriseKey; }
+
+    public String getNom() { return nom; }
+    public void setNom(String nom) { this.nom = nom; }
+
+    public String getPrenom() { return prenom; }
+    public void setPrenom(String prenom) { this.prenom = prenom; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getTelephone() { return telephone; }
+    public void setTelephone(String telephone) { this.telephone = telephone; }
+
+    public String getAdresse() { return adresse; }
+    public void setAdresse(String adresse) { this.adresse = adresse; }
+
+    public long getRevision() { return revision; }
+    public void setRevision(long revision) { this.revision = revision; }
+
+    public boolean isDeleted() { return deleted; }
+    public void setDeleted(boolean deleted) { this.deleted = deleted; }
+
+    public Instant getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Instant updatedAt) { this.updatedAt = updatedAt; }
+}
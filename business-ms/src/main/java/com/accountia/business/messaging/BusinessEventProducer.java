@@ -4,7 +4,6 @@ import com.accountia.business.config.RabbitMQConfig;
 import com.accountia.business.entity.Business;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -16,10 +15,10 @@ public class BusinessEventProducer {
 
     private static final Logger log = LoggerFactory.getLogger(BusinessEventProducer.class);
 
-    private final RabbitTemplate rabbitTemplate;
+    private final RabbitPublisher rabbitPublisher;
 
-    public BusinessEventProducer(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public BusinessEventProducer(RabbitPublisher rabbitPublisher) {
+        this.rabbitPublisher = rabbitPublisher;
     }
 
     public void publishBusinessCreated(Business business) {
@@ -37,7 +36,7 @@ public class BusinessEventProducer {
         payload.put("timestamp", Instant.now().toString());
 
         log.info("Publishing business deleted event for business ID: {}", businessId);
-        rabbitTemplate.convertAndSend(
+        rabbitPublisher.send(
                 RabbitMQConfig.ACCOUNTIA_EXCHANGE,
                 RabbitMQConfig.BUSINESS_DELETED_ROUTING_KEY,
                 payload
@@ -54,7 +53,7 @@ public class BusinessEventProducer {
         payload.put("timestamp", Instant.now().toString());
 
         log.info("Publishing business {} event for business ID: {}", eventType.toLowerCase(), business.getId());
-        rabbitTemplate.convertAndSend(
+        rabbitPublisher.send(
                 RabbitMQConfig.ACCOUNTIA_EXCHANGE,
                 switch (eventType) {
                     case "CREATED" -> RabbitMQConfig.BUSINESS_CREATED_ROUTING_KEY;
@@ -0,0 +1,41 @@
+package com.accountia.business.messaging;
+
+import com.accountia.business.config.RabbitMQConfig;
+import com.accountia.business.service.ClientReplicaService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Tient à jour la copie locale des clients (ClientReplica) à partir des événements de client-ms.
+ * Acquittement automatique : le message n'est retiré de la file qu'une fois la copie écrite,
+ * une erreur persistante l'envoie en DLQ après les tentatives configurées.
+ */
+@Component
+public class ClientEventConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientEventConsumer.class);
+
+    private final ClientReplicaService clientReplicaService;
+
+    public ClientEventConsumer(ClientReplicaService clientReplicaService) {
+        this.clientReplicaService = clientReplicaService;
+    }
+
+    @RabbitListener(queues = RabbitMQConfig.BUSINESS_CLIENT_QUEUE, ackMode = "AUTO")
+    public void handleClientEvent(Map<String, Object> message) {
+        if (message == null) {
+            throw new IllegalArgumentException("Received null client event message");
+        }
+        String eventType = (String) message.get("eventType");
+        log.debug("Received client event: eventType={}, clientId={}", eventType, message.get("clientId"));
+
+        switch (eventType == null ? "" : eventType) {
+            case "CREATED", "UPDATED", "DELETED" -> clientReplicaService.apply(eventType, message);
+            default -> throw new IllegalArgumentException("Unknown client eventType: " + eventType);
+        }
+    }
+}
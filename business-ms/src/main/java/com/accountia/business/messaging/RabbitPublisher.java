@@ -0,0 +1,168 @@
+package com.accountia.business.messaging;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publication RabbitMQ avec publisher confirms asynchrones.
+ *
+ * {@link #publish} envoie avec une CorrelationData et rend le futur du confirm, sans l'attendre.
+ * Le nombre de messages non confirmés est borné par un sémaphore : quand la fenêtre est pleine,
+ * l'appelant attend au plus {@code acquire-timeout-ms} puis reçoit une AmqpException.
+ * {@link #send} est la variante "fire and forget" ; elle passe par le BatchingRabbitTemplate
+ * quand l'agrégation est activée (les confirms sont alors suivis par lot, pas par message).
+ */
+@Component
+public class RabbitPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(RabbitPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final BatchingRabbitTemplate batchingTemplate;
+    private final Semaphore inFlight;
+    private final long acquireTimeoutMs;
+    private final long confirmTimeoutMs;
+
+    private final Timer confirmLatency;
+    private final Counter acks;
+    private final Counter nacks;
+    private final Counter timeouts;
+    private final Counter errors;
+    private final Counter rejected;
+    private final Counter returned;
+
+    public RabbitPublisher(RabbitTemplate rabbitTemplate,
+                           ObjectProvider<BatchingRabbitTemplate> batchingTemplate,
+                           MeterRegistry meterRegistry,
+                           @Value("${accountia.rabbitmq.publisher.max-in-flight:1000}") int maxInFlight,
+                           @Value("${accountia.rabbitmq.publisher.acquire-timeout-ms:5000}") long acquireTimeoutMs,
+                           @Value("${accountia.rabbitmq.publisher.confirm-timeout-ms:10000}") long confirmTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchingTemplate = batchingTemplate.getIfAvailable();
+        this.inFlight = new Semaphore(maxInFlight);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+
+        this.confirmLatency = Timer.builder("rabbitmq.publisher.confirm.latency")
+                .description("Délai entre l'envoi et le publisher confirm")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.acks = confirmCounter(meterRegistry, "ack");
+        this.nacks = confirmCounter(meterRegistry, "nack");
+        this.timeouts = confirmCounter(meterRegistry, "timeout");
+        // Envoi en échec (connexion, canal fermé...) : aucun confirm attendu, ce n'est pas un délai dépassé
+        this.errors = confirmCounter(meterRegistry, "error");
+        this.rejected = Counter.builder("rabbitmq.publisher.rejected")
+                .description("Messages refusés car la fenêtre de messages non confirmés était pleine")
+                .register(meterRegistry);
+        this.returned = Counter.builder("rabbitmq.publisher.returned")
+                .description("Messages acceptés mais non routés (aucun binding)")
+                .register(meterRegistry);
+        meterRegistry.gauge("rabbitmq.publisher.in.flight", inFlight,
+                s -> maxInFlight - s.availablePermits());
+
+        rabbitTemplate.setReturnsCallback(message -> {
+            returned.increment();
+            log.warn("Message non routé : exchange={}, routingKey={}, reply={}",
+                    message.getExchange(), message.getRoutingKey(), message.getReplyText());
+        });
+        if (this.batchingTemplate != null) {
+            this.batchingTemplate.setConfirmCallback((correlation, ack, cause) -> onBatchConfirm(ack, cause));
+        }
+    }
+
+    /**
+     * Publie un message et rend le futur de son publisher confirm.
+     * Le futur se termine en erreur (TimeoutException) si aucun confirm n'arrive à temps.
+     */
+    public CompletableFuture<CorrelationData.Confirm> publish(String exchange, String routingKey, Object payload) {
+        acquirePermit(routingKey);
+        CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+        long start = System.nanoTime();
+        CompletableFuture<CorrelationData.Confirm> confirm = correlation.getFuture()
+                .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+        confirm.whenComplete((result, error) -> {
+            inFlight.release();
+            confirmLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                timeouts.increment();
+                log.warn("Pas de publisher confirm pour {} ({}) après {} ms",
+                        routingKey, correlation.getId(), confirmTimeoutMs);
+            } else if (cause != null) {
+                errors.increment();
+                log.warn("Échec de publication de {} ({}) : {}", routingKey, correlation.getId(), cause.toString());
+            } else if (result.isAck()) {
+                acks.increment();
+            } else {
+                nacks.increment();
+                log.warn("Message {} ({}) refusé par le broker : {}", routingKey, correlation.getId(), result.getReason());
+            }
+        });
+        try {
+            rabbitTemplate.convertAndSend(exchange, routingKey, payload, correlation);
+        } catch (RuntimeException e) {
+            confirm.completeExceptionally(e);
+            throw e;
+        }
+        return confirm;
+    }
+
+    /**
+     * Envoi sans attente du confirm. Agrégé en lots si le BatchingRabbitTemplate est activé.
+     */
+    public void send(String exchange, String routingKey, Object payload) {
+        if (batchingTemplate != null) {
+            batchingTemplate.convertAndSend(exchange, routingKey, payload);
+            return;
+        }
+        publish(exchange, routingKey, payload);
+    }
+
+    // Confirms des lots agrégés : pas de CorrelationData, on ne peut que compter
+    private void onBatchConfirm(boolean ack, String cause) {
+        if (ack) {
+            acks.increment();
+        } else {
+            nacks.increment();
+            log.warn("Lot de messages refusé par le broker : {}", cause);
+        }
+    }
+
+    private void acquirePermit(String routingKey) {
+        try {
+            if (inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        throw new AmqpException("Trop de messages en attente de confirm, publication refusée pour " + routingKey);
+    }
+
+    private static Counter confirmCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("rabbitmq.publisher.confirms")
+                .description("Publisher confirms reçus, par résultat")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
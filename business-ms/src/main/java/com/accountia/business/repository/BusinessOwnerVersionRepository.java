@@ -0,0 +1,14 @@
+package com.accountia.business.repository;
+
+import com.accountia.business.entity.BusinessOwnerVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BusinessOwnerVersionRepository extends JpaRepository<BusinessOwnerVersion, String> {
+
+    // Version globale (administrateurs) : les compteurs ne font que croître, leur somme aussi
+    @Query("SELECT COALESCE(SUM(v.version), 0) FROM BusinessOwnerVersion v")
+    long sumVersions();
+}
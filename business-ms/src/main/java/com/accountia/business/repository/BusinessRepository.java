@@ -1,9 +1,8 @@
 package com.accountia.business.repository;
 
 import com.accountia.business.entity.Business;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,11 +11,6 @@ import java.util.Optional;
 @Repository
 public interface BusinessRepository extends JpaRepository<Business, Long> {
 
-    @Query("SELECT b FROM Business b WHERE b.nom LIKE %:nom%")
-    List<Business> findByNomContaining(@Param("nom") String nom);
-
-    List<Business> findBySecteurIgnoreCase(String secteur);
-
     // NOTE : ces méthodes retournent Optional<Business>
     // Spring Data les génère automatiquement depuis le nom de la méthode
     Optional<Business> findByEmail(String email);
@@ -26,4 +20,25 @@ public interface BusinessRepository extends JpaRepository<Business, Long> {
     List<Business> findByOwnerUserId(Long ownerUserId);
 
     List<Business> findByOwnerSubject(String ownerSubject);
+
+    // ─── Pagination par curseur (keyset sur id décroissant) ─────
+    // Les variantes OwnerSubject partent de l'index (owner_subject, ...) : le coût d'une recherche
+    // dépend des businesses de l'appelant, pas de la table entière.
+
+    List<Business> findByNomContainingIgnoreCaseAndIdLessThanOrderByIdDesc(String nom, Long id, Limit limit);
+
+    List<Business> findByOwnerSubjectAndNomContainingIgnoreCaseAndIdLessThanOrderByIdDesc(
+            String ownerSubject, String nom, Long id, Limit limit);
+
+    // Recherche par préfixe : "nom LIKE 'x%'" reste une plage de l'index B-tree sur nom
+    // (insensible à la casse par la collation de la base, sans fonction sur la colonne)
+    List<Business> findByNomStartingWithAndIdLessThanOrderByIdDesc(String nom, Long id, Limit limit);
+
+    List<Business> findByOwnerSubjectAndNomStartingWithAndIdLessThanOrderByIdDesc(
+            String ownerSubject, String nom, Long id, Limit limit);
+
+    List<Business> findBySecteurIgnoreCaseAndIdLessThanOrderByIdDesc(String secteur, Long id, Limit limit);
+
+    List<Business> findByOwnerSubjectAndSecteurIgnoreCaseAndIdLessThanOrderByIdDesc(
+            String ownerSubject, String secteur, Long id, Limit limit);
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.accountia.business.repository;
+
+import com.accountia.business.entity.BusinessRevenueStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface BusinessRevenueStatRepository extends JpaRepository<BusinessRevenueStat, BusinessRevenueStat.Key> {
+
+    List<BusinessRevenueStat> findByBusinessIdAndPeriodStartBetweenOrderByPeriodStart(Long businessId,
+                                                                                        LocalDate from,
+                                                                                        LocalDate to);
+}
@@ -0,0 +1,24 @@
+package com.accountia.business.repository;
+
+import com.accountia.business.entity.ClientReplica;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ClientReplicaRepository extends JpaRepository<ClientReplica, Integer> {
+
+    /**
+     * Un business et ses clients en une requête : chaque ligne est [Business, ClientReplica],
+     * ClientReplica null si le business n'a aucun client. {@code ownerSubject} null = tous les propriétaires.
+     */
+    @Query("SELECT b, c FROM Business b"
+            + " LEFT JOIN ClientReplica c ON c.entrepriseKey = LOWER(TRIM(b.nom)) AND c.deleted = false"
+            + " AND (:ownerSubject IS NULL OR c.ownerSubject = :ownerSubject)"
+            + " WHERE b.id = :businessId ORDER BY c.nom, c.prenom, c.id")
+    List<Object[]> findBusinessWithClients(@Param("businessId") Long businessId,
+                                           @Param("ownerSubject") String ownerSubject);
+}
@@ -1,23 +1,30 @@
 package com.accountia.business.service;
 
+import com.accountia.business.dto.BusinessPage;
 import com.accountia.business.dto.BusinessRequest;
 import com.accountia.business.dto.ClientDTO;
 import com.accountia.business.entity.Business;
+import com.accountia.business.entity.ClientReplica;
 import com.accountia.business.feign.ClientFeignClient;
 import com.accountia.business.messaging.BusinessEventProducer;
 import com.accountia.business.repository.BusinessRepository;
+import com.accountia.business.repository.ClientReplicaRepository;
+import com.accountia.business.util.BusinessCursor;
 import com.accountia.business.util.SecurityUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import com.accountia.business.dto.BusinessWithClientsDTO;
-import java.util.stream.Collectors;
 
 @Service
 public class BusinessService {
@@ -25,19 +32,32 @@ public class BusinessService {
     private static final Logger log = LoggerFactory.getLogger(BusinessService.class);
 
     private final BusinessRepository businessRepository;
+    private final ClientReplicaRepository clientReplicaRepository;
     private final ClientFeignClient clientFeignClient;
     private final BusinessEventProducer businessEventProducer;
+    private final BusinessVersionService versionService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     public BusinessService(BusinessRepository businessRepository,
+                           ClientReplicaRepository clientReplicaRepository,
                            ClientFeignClient clientFeignClient,
-                           BusinessEventProducer businessEventProducer) {
+                           BusinessEventProducer businessEventProducer,
+                           BusinessVersionService versionService,
+                           @Value("${business.pagination.default-size:50}") int defaultPageSize,
+                           @Value("${business.pagination.max-size:200}") int maxPageSize) {
         this.businessRepository = businessRepository;
+        this.clientReplicaRepository = clientReplicaRepository;
         this.clientFeignClient = clientFeignClient;
         this.businessEventProducer = businessEventProducer;
+        this.versionService = versionService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     // ─── CRUD ────────────────────────────────────────────────────────────────
 
+    @Transactional(readOnly = true)
     public List<Business> getAll() {
         if (SecurityUtil.isAdmin()) {
             return businessRepository.findAll();
@@ -49,25 +69,70 @@ public class BusinessService {
         return businessRepository.findByOwnerSubject(subject);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Business> getById(Long id) {
         return businessRepository.findById(id)
                 .filter(this::canAccessBusiness);
     }
 
-    public List<Business> searchByNom(String nom) {
-        List<Business> businesses = businessRepository.findByNomContaining(nom);
+    // ─── RECHERCHES PAGINÉES ─────────────────────────────────────────────────
+    // Filtre de propriétaire dans la requête (plus de tri en Java), keyset sur id décroissant
+
+    /**
+     * Recherche par nom : {@code prefix} = false cherche le nom n'importe où (LIKE '%nom%'),
+     * true seulement en début de nom (LIKE 'nom%', servi par l'index sur nom).
+     */
+    @Transactional(readOnly = true)
+    public BusinessPage searchByNom(String nom, boolean prefix, String cursor, Integer size) {
+        if (nom == null || nom.isBlank()) {
+            throw new IllegalArgumentException("nom est obligatoire");
+        }
+        long beforeId = BusinessCursor.decode(cursor);
+        int pageSize = resolvePageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
         if (SecurityUtil.isAdmin()) {
-            return businesses;
+            return toPage(prefix
+                    ? businessRepository.findByNomStartingWithAndIdLessThanOrderByIdDesc(nom, beforeId, limit)
+                    : businessRepository.findByNomContainingIgnoreCaseAndIdLessThanOrderByIdDesc(nom, beforeId, limit),
+                    pageSize);
         }
-        return businesses.stream().filter(this::canAccessBusiness).collect(Collectors.toList());
+        String subject = SecurityUtil.getCurrentSubject();
+        if (subject == null || subject.isBlank()) return BusinessPage.empty();
+        return toPage(prefix
+                ? businessRepository.findByOwnerSubjectAndNomStartingWithAndIdLessThanOrderByIdDesc(
+                        subject, nom, beforeId, limit)
+                : businessRepository.findByOwnerSubjectAndNomContainingIgnoreCaseAndIdLessThanOrderByIdDesc(
+                        subject, nom, beforeId, limit),
+                pageSize);
     }
 
-    public List<Business> getBySecteur(String secteur) {
-        List<Business> businesses = businessRepository.findBySecteurIgnoreCase(secteur);
+    @Transactional(readOnly = true)
+    public BusinessPage getBySecteur(String secteur, String cursor, Integer size) {
+        long beforeId = BusinessCursor.decode(cursor);
+        int pageSize = resolvePageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
         if (SecurityUtil.isAdmin()) {
-            return businesses;
+            return toPage(businessRepository.findBySecteurIgnoreCaseAndIdLessThanOrderByIdDesc(
+                    secteur, beforeId, limit), pageSize);
+        }
+        String subject = SecurityUtil.getCurrentSubject();
+        if (subject == null || subject.isBlank()) return BusinessPage.empty();
+        return toPage(businessRepository.findByOwnerSubjectAndSecteurIgnoreCaseAndIdLessThanOrderByIdDesc(
+                subject, secteur, beforeId, limit), pageSize);
+    }
+
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) return defaultPageSize;
+        return Math.min(size, maxPageSize);
+    }
+
+    // On lit une ligne de plus que la page pour savoir s'il existe une page suivante
+    private static BusinessPage toPage(List<Business> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new BusinessPage(rows, null);
         }
-        return businesses.stream().filter(this::canAccessBusiness).collect(Collectors.toList());
+        List<Business> items = rows.subList(0, pageSize);
+        return new BusinessPage(items, BusinessCursor.encode(items.get(pageSize - 1).getId()));
     }
 
     public Business create(BusinessRequest request, Long ownerUserId) {
@@ -93,10 +158,12 @@ public class BusinessService {
         b.setOwnerSubject(SecurityUtil.getCurrentSubject());
 
         Business created = businessRepository.save(b);
+        versionService.bump(created.getOwnerSubject());
         businessEventProducer.publishBusinessCreated(created);
         return created;
     }
 
+    @Transactional
     public Business update(Long id, BusinessRequest request) {
         Business b = businessRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Business introuvable avec id: " + id));
@@ -123,15 +190,18 @@ public class BusinessService {
         }
 
         Business updated = businessRepository.save(b);
+        versionService.bump(updated.getOwnerSubject());
         businessEventProducer.publishBusinessUpdated(updated);
         return updated;
     }
 
+    @Transactional
     public void delete(Long id) {
         Business business = businessRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Business introuvable avec id: " + id));
         ensureOwnershipOrAdmin(business);
         businessRepository.deleteById(id);
+        versionService.bump(business.getOwnerSubject());
         businessEventProducer.publishBusinessDeleted(id);
     }
 
@@ -169,43 +239,61 @@ public class BusinessService {
         return Collections.emptyList();
     }
 
-        /**
-         * Récupère un business par ID avec la liste de ses clients depuis client-ms.
-         */
-        public BusinessWithClientsDTO getByIdWithClients(Long id, String authHeader) {
-            try {
-                return businessRepository.findById(id).map(business -> {
-                // Récupère les clients liés à ce business via nomEntreprise
-                List<ClientDTO> clients = Collections.emptyList();
-                try {
-                    ResponseEntity<List<ClientDTO>> response = clientFeignClient.searchClientsByNomEntreprise(
-                            business.getNom(), authHeader);
-                    if (response != null && response.getBody() != null) {
-                        clients = response.getBody();
-                    }
-                } catch (Exception e) {
-                    log.error("Erreur lors de la récupération des clients du business: {}", e.getMessage());
-                }
-
-                    // Crée le DTO avec les clients
-                    return new BusinessWithClientsDTO(
-                        business.getId(),
-                        business.getNom(),
-                        business.getSecteur(),
-                        business.getAdresse(),
-                        business.getSiret(),
-                        business.getEmail(),
-                        business.getTelephone(),
-                        business.getCreatedAt(),
-                        business.getUpdatedAt(),
-                        clients
-                    );
-                }).orElse(null);
-            } catch (Exception e) {
-                log.error("Erreur lors de la récupération du business avec clients: {}", e.getMessage());
-                return null;
+    /**
+     * Récupère un business par ID avec ses clients, lus dans la copie locale alimentée par client-ms :
+     * une seule requête, sans appel HTTP. Comme client-ms, un utilisateur ne voit que ses propres clients.
+     */
+    @Transactional(readOnly = true)
+    public BusinessWithClientsDTO getByIdWithClients(Long id) {
+        String ownerSubject = null;
+        if (!SecurityUtil.isAdmin()) {
+            ownerSubject = SecurityUtil.getCurrentSubject();
+            if (ownerSubject == null || ownerSubject.isBlank()) {
+                return businessRepository.findById(id)
+                        .map(business -> toBusinessWithClients(business, Collections.emptyList()))
+                        .orElse(null);
+            }
+        }
+
+        List<Object[]> rows = clientReplicaRepository.findBusinessWithClients(id, ownerSubject);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        List<ClientDTO> clients = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            if (row[1] instanceof ClientReplica replica) {
+                clients.add(toClientDto(replica));
             }
         }
+        return toBusinessWithClients((Business) rows.get(0)[0], clients);
+    }
+
+    private static BusinessWithClientsDTO toBusinessWithClients(Business business, List<ClientDTO> clients) {
+        return new BusinessWithClientsDTO(
+                business.getId(),
+                business.getNom(),
+                business.getSecteur(),
+                business.getAdresse(),
+                business.getSiret(),
+                business.getEmail(),
+                business.getTelephone(),
+                business.getCreatedAt(),
+                business.getUpdatedAt(),
+                clients
+        );
+    }
+
+    private static ClientDTO toClientDto(ClientReplica replica) {
+        ClientDTO dto = new ClientDTO();
+        dto.setId(replica.getId());
+        dto.setNom(replica.getNom());
+        dto.setPrenom(replica.getPrenom());
+        dto.setEmail(replica.getEmail());
+        dto.setTelephone(replica.getTelephone());
+        dto.setAdresse(replica.getAdresse());
+        dto.setNomEntreprise(replica.getNomEntreprise());
+        return dto;
+    }
 
     private void ensureOwnershipOrAdmin(Business business) {
         if (canAccessBusiness(business)) {
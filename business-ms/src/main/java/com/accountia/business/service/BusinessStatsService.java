@@ -0,0 +1,390 @@
+package com.accountia.business.service;
+
+import com.accountia.business.dto.BusinessRevenueStats;
+import com.accountia.business.dto.InvoiceEvent;
+import com.accountia.business.entity.Business;
+import com.accountia.business.entity.BusinessInvoiceState;
+import com.accountia.business.entity.BusinessRevenueStat;
+import com.accountia.business.repository.BusinessRevenueStatRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Statistiques de chiffre d'affaires des businesses (facturé, encaissé, restant dû par mois),
+ * alimentées par les événements facture d'invoice-ms.
+ *
+ * Un lot d'événements est appliqué en une transaction et quelques allers-retours : lecture des
+ * états connus des factures du lot, résolution des businesses des nouveaux propriétaires, puis
+ * écriture par lots JDBC des états et des deltas cumulés en mémoire, un upsert par (business, mois).
+ * Une facture est rattachée au business de son propriétaire quand celui-ci n'en a qu'un ; sinon
+ * elle n'est pas comptée, et sera reconsidérée à son prochain événement.
+ *
+ * Chaque état retient le {@code @Version} de la facture au dernier événement appliqué. Un événement
+ * dont la version n'est pas strictement plus récente est ignoré : redélivrance d'un lot déjà
+ * appliqué, ou événement ancien traité après un plus récent (remise en file, consommateurs
+ * concurrents). Une facture supprimée garde un état {@code DELETED}, hors statistiques, qui écarte
+ * ses événements retardataires. Les événements sans version (émis avant son ajout) remplacent
+ * l'état connu sans contrôle d'ordre.
+ */
+@Service
+public class BusinessStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(BusinessStatsService.class);
+
+    // Taille des listes IN (...) des lectures groupées
+    private static final int IN_CHUNK = 500;
+
+    // Plage maximale d'une lecture de statistiques
+    private static final int MAX_MONTHS = 120;
+
+    private static final String SELECT_STATES_SQL = "SELECT invoice_id, business_id, period_start, amount_cents, status,"
+            + " invoice_version FROM " + BusinessInvoiceState.TABLE + " WHERE invoice_id IN (%s) FOR UPDATE";
+
+    private static final String SELECT_OWNER_BUSINESSES_SQL = "SELECT owner_subject, MIN(id), COUNT(*)"
+            + " FROM businesses WHERE owner_subject IN (%s) GROUP BY owner_subject";
+
+    private static final String UPSERT_STATE_SQL = "INSERT INTO " + BusinessInvoiceState.TABLE
+            + " (invoice_id, business_id, period_start, amount_cents, status, invoice_version, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE business_id = VALUES(business_id), period_start = VALUES(period_start),"
+            + " amount_cents = VALUES(amount_cents), status = VALUES(status),"
+            + " invoice_version = VALUES(invoice_version), updated_at = VALUES(updated_at)";
+
+    private static final String DELETE_STATE_SQL = "DELETE FROM " + BusinessInvoiceState.TABLE + " WHERE invoice_id = ?";
+
+    private static final String UPSERT_STATS_SQL = "INSERT INTO " + BusinessRevenueStat.TABLE
+            + " (business_id, period_start, invoice_count, invoiced_cents, paid_cents, outstanding_cents, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE invoice_count = invoice_count + VALUES(invoice_count),"
+            + " invoiced_cents = invoiced_cents + VALUES(invoiced_cents),"
+            + " paid_cents = paid_cents + VALUES(paid_cents),"
+            + " outstanding_cents = outstanding_cents + VALUES(outstanding_cents),"
+            + " updated_at = VALUES(updated_at)";
+
+    static final String DELETED = "DELETED";
+
+    // Part actuelle d'une facture : une ligne de business_invoice_states (version null : inconnue)
+    record State(long businessId, LocalDate periodStart, long amountCents, String status, Long version) {
+
+        State withStatus(String newStatus, Long newVersion) {
+            return new State(businessId, periodStart, amountCents, newStatus, newVersion != null ? newVersion : version);
+        }
+
+        // Aucune version ne dépasse celle d'une facture supprimée
+        State deleted() {
+            return new State(businessId, periodStart, amountCents, DELETED, Long.MAX_VALUE);
+        }
+
+        boolean isNewer(Long eventVersion) {
+            return eventVersion == null || version == null || eventVersion > version;
+        }
+    }
+
+    // États finaux des factures d'un lot et deltas cumulés par (business, mois)
+    record Fold(Map<Long, State> states, Map<Key, Delta> deltas) {
+    }
+
+    record Key(long businessId, LocalDate periodStart) implements Comparable<Key> {
+        private static final Comparator<Key> ORDER =
+                Comparator.comparingLong(Key::businessId).thenComparing(Key::periodStart);
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    static final class Delta {
+        long count;
+        long invoiced;
+        long paid;
+        long outstanding;
+
+        // Brouillons, factures annulées ou supprimées ne comptent pas dans le chiffre d'affaires
+        void add(State state, int sign) {
+            String status = state.status();
+            if ("DRAFT".equals(status) || "CANCELLED".equals(status) || DELETED.equals(status)) return;
+            count += sign;
+            invoiced += sign * state.amountCents();
+            if ("PAID".equals(status)) paid += sign * state.amountCents();
+            if ("SENT".equals(status) || "OVERDUE".equals(status)) outstanding += sign * state.amountCents();
+        }
+
+        boolean isZero() {
+            return count == 0 && invoiced == 0 && paid == 0 && outstanding == 0;
+        }
+    }
+
+    private final BusinessRevenueStatRepository statRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BusinessStatsService(BusinessRevenueStatRepository statRepository, JdbcTemplate jdbcTemplate) {
+        this.statRepository = statRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // ─── LECTURE ─────────────────────────────────────────────────────────────
+
+    /**
+     * Statistiques du business de {@code from} à {@code to} (mois « yyyy-MM », inclus).
+     * Par défaut : les douze derniers mois.
+     */
+    @Transactional(readOnly = true)
+    public BusinessRevenueStats getStats(Business business, String from, String to) {
+        YearMonth toMonth = parseMonth("to", to, YearMonth.now());
+        YearMonth fromMonth = parseMonth("from", from, toMonth.minusMonths(11));
+        if (fromMonth.isAfter(toMonth)) {
+            throw new IllegalArgumentException("from doit précéder to");
+        }
+        if (ChronoUnit.MONTHS.between(fromMonth, toMonth) >= MAX_MONTHS) {
+            throw new IllegalArgumentException("Période limitée à " + MAX_MONTHS + " mois");
+        }
+
+        List<BusinessRevenueStat> rows = statRepository.findByBusinessIdAndPeriodStartBetweenOrderByPeriodStart(
+                business.getId(), fromMonth.atDay(1), toMonth.atDay(1));
+        List<BusinessRevenueStats.Month> months = new ArrayList<>(rows.size());
+        long count = 0, invoiced = 0, paid = 0, outstanding = 0;
+        for (BusinessRevenueStat row : rows) {
+            if (row.getInvoiceCount() == 0 && row.getInvoicedCents() == 0) continue;
+            months.add(new BusinessRevenueStats.Month(YearMonth.from(row.getPeriodStart()).toString(),
+                    row.getInvoiceCount(), amount(row.getInvoicedCents()), amount(row.getPaidCents()),
+                    amount(row.getOutstandingCents())));
+            count += row.getInvoiceCount();
+            invoiced += row.getInvoicedCents();
+            paid += row.getPaidCents();
+            outstanding += row.getOutstandingCents();
+        }
+        return new BusinessRevenueStats(business.getId(), fromMonth.toString(), toMonth.toString(), count,
+                amount(invoiced), amount(paid), amount(outstanding), months);
+    }
+
+    // ─── ÉVÉNEMENTS FACTURE ──────────────────────────────────────────────────
+
+    /**
+     * Applique un lot d'événements, dans l'ordre de réception. Seuls les événements plus récents
+     * que l'état connu de leur facture sont pris en compte, et seul l'écart avec cet état est cumulé.
+     */
+    @Transactional
+    public void apply(List<InvoiceEvent> events) {
+        if (events.isEmpty()) return;
+        long start = System.currentTimeMillis();
+
+        Set<Long> invoiceIds = new TreeSet<>();
+        for (InvoiceEvent event : events) invoiceIds.addAll(invoiceIdsOf(event));
+        Map<Long, State> known = loadStates(invoiceIds);
+
+        // Seules les factures encore inconnues ont besoin du business de leur propriétaire
+        Set<String> owners = new HashSet<>();
+        for (InvoiceEvent event : events) {
+            InvoiceEvent.Invoice invoice = event.invoice();
+            if (invoice != null && invoice.ownerSubject() != null && !known.containsKey(invoiceIdOf(event))) {
+                owners.add(invoice.ownerSubject());
+            }
+        }
+        Map<String, Long> ownerBusinesses = resolveBusinesses(owners);
+
+        Fold fold = fold(events, known, ownerBusinesses);
+        writeStates(known, fold.states(), invoiceIds);
+        int rows = writeDeltas(fold.deltas());
+        log.debug("Statistiques : {} événements, {} factures, {} lignes mises à jour en {} ms",
+                events.size(), invoiceIds.size(), rows, System.currentTimeMillis() - start);
+    }
+
+    // Pli des événements en mémoire, sans accès à la base
+    static Fold fold(List<InvoiceEvent> events, Map<Long, State> known, Map<String, Long> ownerBusinesses) {
+        Map<Long, State> current = new HashMap<>(known);
+        Map<Key, Delta> deltas = new TreeMap<>();
+        for (InvoiceEvent event : events) {
+            switch (event.eventType()) {
+                case "CREATED", "UPDATED" -> {
+                    Long id = invoiceIdOf(event);
+                    State before = current.get(id);
+                    if (before != null && !before.isNewer(event.invoice().version())) continue;
+                    change(current, deltas, id, before, toState(event.invoice(), before, ownerBusinesses));
+                }
+                case "DELETED" -> {
+                    // Facture inconnue : pas de business, rien à retirer
+                    Long id = invoiceIdOf(event);
+                    State before = current.get(id);
+                    if (before != null && !DELETED.equals(before.status())) {
+                        change(current, deltas, id, before, before.deleted());
+                    }
+                }
+                case "OVERDUE" -> statusChanged(current, deltas, event.invoiceIds(), event.invoiceVersions(), "OVERDUE");
+                case "STATUS_CHANGED" ->
+                        statusChanged(current, deltas, event.invoiceIds(), event.invoiceVersions(), event.status());
+                default -> log.debug("Événement facture {} ignoré par les statistiques", event.eventType());
+            }
+        }
+        return new Fold(current, deltas);
+    }
+
+    private static void change(Map<Long, State> current, Map<Key, Delta> deltas, Long invoiceId,
+                               State before, State after) {
+        if (before != null) delta(deltas, before).add(before, -1);
+        if (after != null) {
+            delta(deltas, after).add(after, 1);
+            current.put(invoiceId, after);
+        } else {
+            current.remove(invoiceId);
+        }
+    }
+
+    private static void statusChanged(Map<Long, State> current, Map<Key, Delta> deltas,
+                                      List<Long> invoiceIds, List<Long> versions, String status) {
+        if (invoiceIds == null || status == null) return;
+        for (int i = 0; i < invoiceIds.size(); i++) {
+            Long id = invoiceIds.get(i);
+            Long version = versions != null && i < versions.size() ? versions.get(i) : null;
+            State before = current.get(id);
+            // Facture non rattachée à un business : rien à compter
+            if (before != null && before.isNewer(version)) {
+                change(current, deltas, id, before, before.withStatus(status, version));
+            }
+        }
+    }
+
+    private static Delta delta(Map<Key, Delta> deltas, State state) {
+        return deltas.computeIfAbsent(new Key(state.businessId(), state.periodStart()), k -> new Delta());
+    }
+
+    // Le business d'une facture déjà comptée ne change pas ; le mois suit la date d'émission
+    private static State toState(InvoiceEvent.Invoice invoice, State before, Map<String, Long> ownerBusinesses) {
+        Long businessId = before != null ? Long.valueOf(before.businessId()) : ownerBusinesses.get(invoice.ownerSubject());
+        if (businessId == null) return null;
+        LocalDate periodStart = invoice.issueDate() != null ? invoice.issueDate().withDayOfMonth(1)
+                : before != null ? before.periodStart() : LocalDate.now().withDayOfMonth(1);
+        long amountCents = invoice.amount() == null ? 0 : Math.round(invoice.amount() * 100);
+        String status = invoice.status() != null ? invoice.status() : before != null ? before.status() : "DRAFT";
+        Long version = invoice.version() != null ? invoice.version() : before != null ? before.version() : null;
+        return new State(businessId, periodStart, amountCents, status, version);
+    }
+
+    private static Long invoiceIdOf(InvoiceEvent event) {
+        if (event.invoice() != null && event.invoice().id() != null) return event.invoice().id();
+        return Long.valueOf(event.invoiceId());
+    }
+
+    private static Collection<Long> invoiceIdsOf(InvoiceEvent event) {
+        return switch (event.eventType()) {
+            case "CREATED", "UPDATED", "DELETED" -> List.of(invoiceIdOf(event));
+            case "OVERDUE", "STATUS_CHANGED" -> event.invoiceIds() == null ? List.of() : event.invoiceIds();
+            default -> List.of();
+        };
+    }
+
+    // ─── ACCÈS JDBC GROUPÉS ──────────────────────────────────────────────────
+
+    private Map<Long, State> loadStates(Set<Long> invoiceIds) {
+        Map<Long, State> states = new HashMap<>();
+        for (List<Object> chunk : chunks(invoiceIds)) {
+            jdbcTemplate.query(String.format(SELECT_STATES_SQL, placeholders(chunk.size())), rs -> {
+                long version = rs.getLong(6);
+                states.put(rs.getLong(1), new State(rs.getLong(2), rs.getDate(3).toLocalDate(), rs.getLong(4),
+                        rs.getString(5), rs.wasNull() ? null : version));
+            }, chunk.toArray());
+        }
+        return states;
+    }
+
+    private Map<String, Long> resolveBusinesses(Set<String> owners) {
+        if (owners.isEmpty()) return Collections.emptyMap();
+        Map<String, Long> businesses = new HashMap<>();
+        for (List<Object> chunk : chunks(owners)) {
+            jdbcTemplate.query(String.format(SELECT_OWNER_BUSINESSES_SQL, placeholders(chunk.size())), rs -> {
+                if (rs.getLong(3) == 1) {
+                    businesses.put(rs.getString(1), rs.getLong(2));
+                } else {
+                    log.debug("Propriétaire {} : {} businesses, factures non rattachées", rs.getString(1), rs.getLong(3));
+                }
+            }, chunk.toArray());
+        }
+        return businesses;
+    }
+
+    private void writeStates(Map<Long, State> known, Map<Long, State> current, Set<Long> invoiceIds) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> upserts = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        for (Long id : invoiceIds) {
+            State before = known.get(id);
+            State after = current.get(id);
+            if (after == null) {
+                if (before != null) deletes.add(new Object[]{id});
+            } else if (!after.equals(before)) {
+                upserts.add(new Object[]{id, after.businessId(), Date.valueOf(after.periodStart()),
+                        after.amountCents(), after.status(), after.version(), now});
+            }
+        }
+        if (!upserts.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_STATE_SQL, upserts);
+        if (!deletes.isEmpty()) jdbcTemplate.batchUpdate(DELETE_STATE_SQL, deletes);
+    }
+
+    // Upserts triés par clé : ordre de verrouillage stable entre consommateurs concurrents
+    private int writeDeltas(Map<Key, Delta> deltas) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                rows.add(new Object[]{key.businessId(), Date.valueOf(key.periodStart()), delta.count,
+                        delta.invoiced, delta.paid, delta.outstanding, now});
+            }
+        });
+        if (!rows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_STATS_SQL, rows);
+        return rows.size();
+    }
+
+    private static List<List<Object>> chunks(Collection<?> values) {
+        List<List<Object>> chunks = new ArrayList<>();
+        List<Object> chunk = new ArrayList<>(Math.min(values.size(), IN_CHUNK));
+        for (Object value : values) {
+            chunk.add(value);
+            if (chunk.size() == IN_CHUNK) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>(IN_CHUNK);
+            }
+        }
+        if (!chunk.isEmpty()) chunks.add(chunk);
+        return chunks;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static YearMonth parseMonth(String name, String value, YearMonth defaultValue) {
+        if (value == null || value.isBlank()) return defaultValue;
+        try {
+            return YearMonth.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " invalide : " + value + " (attendu : yyyy-MM)");
+        }
+    }
+
+    private static BigDecimal amount(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,62 @@
+package com.accountia.business.service;
+
+import com.accountia.business.entity.BusinessOwnerVersion;
+import com.accountia.business.repository.BusinessOwnerVersionRepository;
+import com.accountia.business.util.SecurityUtil;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Function;
+
+/**
+ * ETag des lectures des businesses, dérivé d'un compteur de version par propriétaire.
+ *
+ * Les écritures incrémentent le compteur une fois la ligne enregistrée ; une requête dont
+ * le If-None-Match correspond reçoit un 304 après une simple lecture par clé primaire,
+ * sans requête sur businesses ni sérialisation.
+ */
+@Service
+public class BusinessVersionService {
+
+    private static final String BUMP_SQL = "INSERT INTO " + BusinessOwnerVersion.TABLE
+            + " (owner_subject, version) VALUES (?, 1) ON DUPLICATE KEY UPDATE version = version + 1";
+
+    private final BusinessOwnerVersionRepository versionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public BusinessVersionService(BusinessOwnerVersionRepository versionRepository, JdbcTemplate jdbcTemplate) {
+        this.versionRepository = versionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lit l'ETag puis les données ({@code read} reçoit l'ETag, null si l'utilisateur n'est pas
+     * identifié) dans une même transaction en lecture seule : les deux viennent de la même source,
+     * primaire ou réplique, et du même instantané InnoDB. Une réplique en retard rend donc un ETag
+     * aussi ancien que ses données, jamais un ETag récent sur des lignes périmées.
+     */
+    @Transactional(readOnly = true)
+    public <T> T readWithETag(Function<String, T> read) {
+        return read.apply(currentETag());
+    }
+
+    /**
+     * ETag fort de l'utilisateur courant, ou null s'il n'est pas identifié.
+     * À lire avant les données, dans la même transaction (voir {@link #readWithETag}).
+     */
+    public String currentETag() {
+        if (SecurityUtil.isAdmin()) {
+            return "\"a" + versionRepository.sumVersions() + "\"";
+        }
+        String subject = SecurityUtil.getCurrentSubject();
+        if (subject == null || subject.isBlank()) return null;
+        long version = versionRepository.findById(subject).map(BusinessOwnerVersion::getVersion).orElse(0L);
+        return "\"o" + version + "\"";
+    }
+
+    // Appelé après l'enregistrement : la nouvelle version n'est jamais visible avant les données
+    public void bump(String ownerSubject) {
+        jdbcTemplate.update(BUMP_SQL, ownerSubject == null ? "" : ownerSubject);
+    }
+}
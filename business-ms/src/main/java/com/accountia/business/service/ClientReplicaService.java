@@ -0,0 +1,98 @@
+package com.accountia.business.service;
+
+import com.accountia.business.entity.ClientReplica;
+import com.accountia.business.repository.ClientReplicaRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Applique les événements client-ms à la copie locale des clients.
+ * Un événement n'est appliqué que si sa révision est strictement plus récente que celle déjà
+ * connue : les événements arrivés dans le désordre ne font pas revenir la copie en arrière, et
+ * une révision déjà appliquée (redélivrance, republication) est ignorée. client-ms attribue une
+ * révision distincte à chaque écriture ; une révision égale avec un autre contenu est signalée.
+ */
+@Service
+public class ClientReplicaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientReplicaService.class);
+
+    private final ClientReplicaRepository replicaRepository;
+
+    public ClientReplicaService(ClientReplicaRepository replicaRepository) {
+        this.replicaRepository = replicaRepository;
+    }
+
+    @Transactional
+    public void apply(String eventType, Map<String, Object> message) {
+        Integer clientId = toInteger(message.get("clientId"));
+        if (clientId == null) {
+            throw new IllegalArgumentException("clientId manquant dans l'événement client " + eventType);
+        }
+        long revision = toLong(message.get("revision"));
+
+        ClientReplica replica = replicaRepository.findById(clientId).orElse(null);
+        if (replica != null && revision < replica.getRevision()) {
+            log.debug("Événement client {} ignoré : révision {} < {}", clientId, revision, replica.getRevision());
+            return;
+        }
+        if (replica != null && revision == replica.getRevision()) {
+            if (sameContent(replica, eventType, message)) {
+                log.debug("Événement client {} ignoré : révision {} déjà appliquée", clientId, revision);
+            } else {
+                log.warn("Événement client {} ignoré : révision {} déjà appliquée avec un autre contenu",
+                        clientId, revision);
+            }
+            return;
+        }
+        if (replica == null) {
+            replica = new ClientReplica();
+            replica.setId(clientId);
+        }
+        replica.setRevision(revision);
+        replica.setOwnerSubject((String) message.get("ownerSubject"));
+        replica.setNomEntreprise((String) message.get("nomEntreprise"));
+        replica.setDeleted("DELETED".equals(eventType));
+        if (!replica.isDeleted()) {
+            replica.setNom((String) message.get("nom"));
+            replica.setPrenom((String) message.get("prenom"));
+            replica.setEmail((String) message.get("email"));
+            replica.setTelephone((String) message.get("telephone"));
+            replica.setAdresse((String) message.get("adresse"));
+        }
+        replica.setUpdatedAt(Instant.now());
+        replicaRepository.save(replica);
+    }
+
+    static boolean sameContent(ClientReplica replica, String eventType, Map<String, Object> message) {
+        boolean deleted = "DELETED".equals(eventType);
+        if (replica.isDeleted() != deleted
+                || !Objects.equals(replica.getOwnerSubject(), message.get("ownerSubject"))
+                || !Objects.equals(replica.getNomEntreprise(), message.get("nomEntreprise"))) {
+            return false;
+        }
+        return deleted || (Objects.equals(replica.getNom(), message.get("nom"))
+                && Objects.equals(replica.getPrenom(), message.get("prenom"))
+                && Objects.equals(replica.getEmail(), message.get("email"))
+                && Objects.equals(replica.getTelephone(), message.get("telephone"))
+                && Objects.equals(replica.getAdresse(), message.get("adresse")));
+    }
+
+    private static Integer toInteger(Object value) {
+        if (value instanceof Number number) return number.intValue();
+        if (value instanceof String text && !text.isBlank()) return Integer.valueOf(text);
+        return null;
+    }
+
+    private static long toLong(Object value) {
+        if (value instanceof Number number) return number.longValue();
+        if (value instanceof String text && !text.isBlank()) return Long.parseLong(text);
+        return 0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.accountia.business.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Jeton de continuation opaque pour la pagination keyset sur {@code businesses.id}.
+ * Le client le renvoie tel quel, sans en interpréter le contenu.
+ */
+public final class BusinessCursor {
+
+    private static final String PREFIX = "v1:";
+
+    private BusinessCursor() {
+    }
+
+    public static String encode(Long lastId) {
+        String raw = PREFIX + lastId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Id sous lequel reprendre la lecture, ou {@link Long#MAX_VALUE} pour la première page.
+     */
+    public static long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Long.MAX_VALUE;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide", e);
+        }
+    }
+}
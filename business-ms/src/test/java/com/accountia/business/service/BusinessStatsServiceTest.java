@@ -0,0 +1,113 @@
+package com.accountia.business.service;
+
+import com.accountia.business.dto.InvoiceEvent;
+import com.accountia.business.service.BusinessStatsService.Delta;
+import com.accountia.business.service.BusinessStatsService.Fold;
+import com.accountia.business.service.BusinessStatsService.Key;
+import com.accountia.business.service.BusinessStatsService.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pli des événements facture en états et deltas, sans base de données.
+ */
+class BusinessStatsServiceTest {
+
+    private static final long BUSINESS = 1L;
+    private static final LocalDate MARCH = LocalDate.of(2026, 3, 1);
+    private static final Map<String, Long> OWNERS = Map.of("owner-1", BUSINESS);
+
+    @Test
+    void foldsSuccessiveEventsOfAnInvoiceIntoOneDelta() {
+        Fold fold = BusinessStatsService.fold(List.of(
+                upsert("CREATED", 10L, "SENT", 0L),
+                upsert("UPDATED", 10L, "PAID", 1L)), Map.of(), OWNERS);
+
+        assertThat(fold.states().get(10L)).isEqualTo(new State(BUSINESS, MARCH, 12_500, "PAID", 1L));
+        assertDelta(fold, 1, 12_500, 12_500, 0);
+    }
+
+    @Test
+    void draftsAreNotCounted() {
+        Fold fold = BusinessStatsService.fold(List.of(upsert("CREATED", 10L, "DRAFT", 0L)), Map.of(), OWNERS);
+
+        assertThat(fold.states()).containsKey(10L);
+        assertDelta(fold, 0, 0, 0, 0);
+    }
+
+    @Test
+    void ignoresEventsThatAreNotNewerThanTheKnownState() {
+        Map<Long, State> known = Map.of(10L, new State(BUSINESS, MARCH, 12_500, "PAID", 2L));
+
+        Fold fold = BusinessStatsService.fold(List.of(
+                upsert("UPDATED", 10L, "SENT", 1L),
+                upsert("UPDATED", 10L, "SENT", 2L)), known, OWNERS);
+
+        assertThat(fold.states().get(10L).status()).isEqualTo("PAID");
+        assertThat(fold.deltas()).isEmpty();
+    }
+
+    @Test
+    void appliesBatchStatusChangesPerInvoiceVersion() {
+        Map<Long, State> known = Map.of(
+                10L, new State(BUSINESS, MARCH, 12_500, "SENT", 1L),
+                11L, new State(BUSINESS, MARCH, 2_000, "SENT", 4L));
+
+        // 11 est déjà en version 4 : le passage à PAID en version 3 est plus ancien
+        Fold fold = BusinessStatsService.fold(List.of(new InvoiceEvent("STATUS_CHANGED", "10", null,
+                List.of(10L, 11L), List.of(2L, 3L), "PAID")), known, OWNERS);
+
+        assertThat(fold.states().get(10L)).isEqualTo(new State(BUSINESS, MARCH, 12_500, "PAID", 2L));
+        assertThat(fold.states().get(11L).status()).isEqualTo("SENT");
+        assertDelta(fold, 0, 0, 12_500, -12_500);
+    }
+
+    @Test
+    void deletionLeavesATombstoneThatRejectsLateEvents() {
+        Map<Long, State> known = Map.of(10L, new State(BUSINESS, MARCH, 12_500, "SENT", 1L));
+
+        Fold fold = BusinessStatsService.fold(List.of(
+                new InvoiceEvent("DELETED", "10", null, null, null, null),
+                upsert("UPDATED", 10L, "PAID", 2L)), known, OWNERS);
+
+        assertThat(fold.states().get(10L).status()).isEqualTo(BusinessStatsService.DELETED);
+        assertDelta(fold, -1, -12_500, 0, -12_500);
+    }
+
+    @Test
+    void invoicesOfOwnersWithoutASingleBusinessAreNotCounted() {
+        Fold fold = BusinessStatsService.fold(List.of(upsert("CREATED", 10L, "SENT", 0L)), Map.of(), Map.of());
+
+        assertThat(fold.states()).doesNotContainKey(10L);
+        assertThat(fold.deltas()).isEmpty();
+    }
+
+    @Test
+    void eventsWithoutVersionStillApply() {
+        Map<Long, State> known = Map.of(10L, new State(BUSINESS, MARCH, 12_500, "SENT", 3L));
+
+        Fold fold = BusinessStatsService.fold(List.of(upsert("UPDATED", 10L, "PAID", null)), known, OWNERS);
+
+        assertThat(fold.states().get(10L)).isEqualTo(new State(BUSINESS, MARCH, 12_500, "PAID", 3L));
+        assertDelta(fold, 0, 0, 12_500, -12_500);
+    }
+
+    private static InvoiceEvent upsert(String type, Long id, String status, Long version) {
+        InvoiceEvent.Invoice invoice = new InvoiceEvent.Invoice(id, "owner-1", 125.0, LocalDate.of(2026, 3, 15),
+                status, version);
+        return new InvoiceEvent(type, String.valueOf(id), invoice, null, null, null);
+    }
+
+    private static void assertDelta(Fold fold, long count, long invoiced, long paid, long outstanding) {
+        Delta delta = fold.deltas().get(new Key(BUSINESS, MARCH));
+        if (count == 0 && invoiced == 0 && paid == 0 && outstanding == 0 && delta == null) return;
+        assertThat(delta).isNotNull();
+        assertThat(new long[]{delta.count, delta.invoiced, delta.paid, delta.outstanding})
+                .containsExactly(count, invoiced, paid, outstanding);
+    }
+}
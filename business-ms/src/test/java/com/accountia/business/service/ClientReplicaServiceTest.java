@@ -0,0 +1,106 @@
+package com.accountia.business.service;
+
+import com.accountia.business.entity.ClientReplica;
+import com.accountia.business.repository.ClientReplicaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ClientReplicaServiceTest {
+
+    private final Map<Integer, ClientReplica> replicas = new HashMap<>();
+    private ClientReplicaRepository repository;
+    private ClientReplicaService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(ClientReplicaRepository.class);
+        when(repository.findById(any())).thenAnswer(inv -> Optional.ofNullable(replicas.get(inv.<Integer>getArgument(0))));
+        when(repository.save(any())).thenAnswer(inv -> {
+            ClientReplica replica = inv.getArgument(0);
+            replicas.put(replica.getId(), replica);
+            return replica;
+        });
+        service = new ClientReplicaService(repository);
+    }
+
+    @Test
+    void appliesNewerRevisions() {
+        service.apply("CREATED", event(1, "Dupont"));
+        service.apply("UPDATED", event(2, "Durand"));
+
+        assertThat(replicas.get(7).getRevision()).isEqualTo(2);
+        assertThat(replicas.get(7).getNom()).isEqualTo("Durand");
+    }
+
+    @Test
+    void ignoresOlderRevisions() {
+        service.apply("UPDATED", event(3, "Durand"));
+        service.apply("UPDATED", event(2, "Dupont"));
+
+        assertThat(replicas.get(7).getRevision()).isEqualTo(3);
+        assertThat(replicas.get(7).getNom()).isEqualTo("Durand");
+    }
+
+    @Test
+    void ignoresARedeliveredRevisionWithoutWriting() {
+        service.apply("UPDATED", event(2, "Durand"));
+        service.apply("UPDATED", event(2, "Durand"));
+
+        verify(repository, times(1)).save(any());
+    }
+
+    @Test
+    void ignoresAnEqualRevisionCarryingOtherContent() {
+        service.apply("UPDATED", event(2, "Durand"));
+        service.apply("UPDATED", event(2, "Martin"));
+
+        assertThat(replicas.get(7).getNom()).isEqualTo("Durand");
+    }
+
+    @Test
+    void lateUpdateDoesNotResurrectADeletedClient() {
+        service.apply("UPDATED", event(2, "Durand"));
+        service.apply("DELETED", event(3, null));
+        service.apply("UPDATED", event(2, "Durand"));
+
+        assertThat(replicas.get(7).isDeleted()).isTrue();
+        assertThat(replicas.get(7).getRevision()).isEqualTo(3);
+    }
+
+    @Test
+    void comparesContentOfDeletedReplicasOnOwnerAndCompanyOnly() {
+        ClientReplica replica = new ClientReplica();
+        replica.setId(7);
+        replica.setOwnerSubject("owner-1");
+        replica.setNomEntreprise("Acme");
+        replica.setDeleted(true);
+
+        assertThat(ClientReplicaService.sameContent(replica, "DELETED", event(3, null))).isTrue();
+        assertThat(ClientReplicaService.sameContent(replica, "UPDATED", event(3, "Durand"))).isFalse();
+    }
+
+    private static Map<String, Object> event(long revision, String nom) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("clientId", 7);
+        message.put("revision", revision);
+        message.put("ownerSubject", "owner-1");
+        message.put("nomEntreprise", "Acme");
+        if (nom != null) {
+            message.put("nom", nom);
+            message.put("prenom", "Jean");
+            message.put("email", "jean@acme.test");
+        }
+        return message;
+    }
+}
@@ -0,0 +1,46 @@
+package com.accountia.business.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BusinessCursorTest {
+
+    @Test
+    void roundTripsTheLastId() {
+        assertThat(BusinessCursor.decode(BusinessCursor.encode(42L))).isEqualTo(42L);
+        assertThat(BusinessCursor.decode(BusinessCursor.encode(Long.MAX_VALUE - 1))).isEqualTo(Long.MAX_VALUE - 1);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        assertThat(BusinessCursor.encode(123_456_789L)).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void missingCursorStartsAtTheFirstPage() {
+        assertThat(BusinessCursor.decode(null)).isEqualTo(Long.MAX_VALUE);
+        assertThat(BusinessCursor.decode("")).isEqualTo(Long.MAX_VALUE);
+        assertThat(BusinessCursor.decode("  ")).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        // Base64 invalide, préfixe absent, id non numérique : toujours IllegalArgumentException (400)
+        assertThatThrownBy(() -> BusinessCursor.decode("***"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Curseur de pagination invalide");
+        assertThatThrownBy(() -> BusinessCursor.decode(encodeRaw("42")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BusinessCursor.decode(encodeRaw("v1:abc")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
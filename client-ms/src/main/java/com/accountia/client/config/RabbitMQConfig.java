@@ -0,0 +1,48 @@
+package com.accountia.client.config;
+
+import org.springframework.amqp.core.ExchangeBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * RabbitMQ configuration for Client Service.
+ * client-ms ne consomme rien : il publie les changements de clients, répliqués par business-ms.
+ */
+@Configuration
+@Profile("!ci")
+public class RabbitMQConfig {
+
+    // Exchange names
+    public static final String ACCOUNTIA_EXCHANGE = "accountia.exchange";
+
+    // Routing keys
+    public static final String CLIENT_CREATED_ROUTING_KEY = "client.created";
+    public static final String CLIENT_UPDATED_ROUTING_KEY = "client.updated";
+    public static final String CLIENT_DELETED_ROUTING_KEY = "client.deleted";
+
+    @Bean
+    public TopicExchange accountiaExchange() {
+        return ExchangeBuilder
+            .topicExchange(ACCOUNTIA_EXCHANGE)
+            .durable(true)
+            .build();
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter() {
+        return new Jackson2JsonMessageConverter();
+    }
+
+    @Bean
+    public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
+        RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
+        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        return rabbitTemplate;
+    }
+}
@@ -2,20 +2,26 @@ package com.accountia.client.controller;
 
 import com.accountia.client.entity.Client;
 import com.accountia.client.service.ClientService;
+import com.accountia.client.service.ClientVersionService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/client")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 public class ClientController {
 
     @Autowired
     private ClientService clientService;
 
+    @Autowired
+    private ClientVersionService clientVersionService;
+
     @GetMapping("/health")
     public ResponseEntity<?> health() {
         return ResponseEntity.ok("client-ms up");
@@ -23,10 +29,12 @@ public class ClientController {
 
     // GET ALL - /api/client/clients
     @GetMapping("/clients")
-    public ResponseEntity<List<Client>> getAllClients() {
-        List<Client> clients = clientService.getAllClients();
-        if (clients.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(clients);
+    public ResponseEntity<List<Client>> getAllClients(WebRequest request) {
+        return conditional(request, () -> {
+            List<Client> clients = clientService.getAllClients();
+            if (clients.isEmpty()) return ResponseEntity.noContent().build();
+            return ResponseEntity.ok(clients);
+        });
     }
 
     // GET BY ID - /api/client/clients/1
@@ -39,18 +47,23 @@ public class ClientController {
 
     // GET BY NOM - /api/client/clients/search?nom=Ben
     @GetMapping("/clients/search")
-    public ResponseEntity<List<Client>> searchByNom(@RequestParam String nom) {
-        List<Client> clients = clientService.getClientsByNom(nom);
-        if (clients.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(clients);
+    public ResponseEntity<List<Client>> searchByNom(@RequestParam String nom, WebRequest request) {
+        return conditional(request, () -> {
+            List<Client> clients = clientService.getClientsByNom(nom);
+            if (clients.isEmpty()) return ResponseEntity.noContent().build();
+            return ResponseEntity.ok(clients);
+        });
     }
 
     // GET BY NOM ENTREPRISE - /api/client/clients/business?nomEntreprise=TechCorp
     @GetMapping("/clients/business")
-    public ResponseEntity<List<Client>> searchByNomEntreprise(@RequestParam String nomEntreprise) {
-        List<Client> clients = clientService.getClientsByNomEntreprise(nomEntreprise);
-        if (clients.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(clients);
+    public ResponseEntity<List<Client>> searchByNomEntreprise(@RequestParam String nomEntreprise,
+                                                              WebRequest request) {
+        return conditional(request, () -> {
+            List<Client> clients = clientService.getClientsByNomEntreprise(nomEntreprise);
+            if (clients.isEmpty()) return ResponseEntity.noContent().build();
+            return ResponseEntity.ok(clients);
+        });
     }
 
     // POST - Créer un client
@@ -73,4 +86,28 @@ public class ClientController {
     public ResponseEntity<String> deleteClient(@PathVariable Integer id) {
         return new ResponseEntity<>(clientService.deleteClient(id), HttpStatus.OK);
     }
+
+    // POST - Republier tous les clients (copie locale de business-ms) - /api/client/clients/republish
+    @PostMapping("/clients/republish")
+    public ResponseEntity<String> republishClients() {
+        int count = clientService.republishAll();
+        return ResponseEntity.accepted().body(count + " clients republiés");
+    }
+
+    // Lecture conditionnelle : si le If-None-Match correspond à la version courante du
+    // propriétaire, 304 sans lire la base ni sérialiser la réponse
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<ResponseEntity<T>> read) {
+        return clientVersionService.readWithETag(etag -> {
+            if (etag == null) return read.get();
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).<T>build();
+            }
+            ResponseEntity<T> response = read.get();
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(response.getHeaders())
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(response.getBody());
+        });
+    }
 }
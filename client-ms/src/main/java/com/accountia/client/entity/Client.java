@@ -1,5 +1,6 @@
 package com.accountia.client.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 @Entity
@@ -28,6 +29,12 @@ public class Client {
     @Column(name = "owner_subject")
     private String ownerSubject;
 
+    // Incrémentée à chaque écriture et publiée avec les événements client (copies locales des autres services).
+    // Jamais écrite par le flush de l'entité : seul ClientRepository.incrementRevision la modifie
+    @JsonIgnore
+    @Column(updatable = false)
+    private Long revision;
+
     // Constructeurs
     public Client() {}
 
@@ -66,6 +73,10 @@ public class Client {
     public String getOwnerSubject() { return ownerSubject; }
     public void setOwnerSubject(String ownerSubject) { this.ownerSubject = ownerSubject; }
 
+    // Les lignes antérieures à la colonne ont une révision nulle, comptée comme 0
+    public long getRevision() { return revision == null ? 0 : revision; }
+    public void setRevision(long revision) { this.revision = revision; }
+
     @Override
     public String toString() {
         return "Client{id=" + id + ", nom='" + nom + "', email='" + email + "'}";
@@ -0,0 +1,30 @@
+package com.accountia.client.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Compteur de version des clients d'un propriétaire, incrémenté à chaque écriture.
+ * Sert d'ETag aux lectures de liste : tant qu'il ne bouge pas, la réponse est inchangée.
+ */
+@Entity
+@Table(name = "client_owner_versions")
+public class ClientOwnerVersion {
+
+    public static final String TABLE = "client_owner_versions";
+
+    // Chaîne vide pour les lignes sans propriétaire
+    @Id
+    @Column(name = "owner_subject", nullable = false)
+    private String ownerSubject;
+
+    @Column(nullable = false)
+    private long version;
+
+    public String getOwnerSubject() { return ownerSubject; }
+    public void setOwnerSubject(String ownerSubject) { this.ownerSubject = ownerSubject; }
+    public long getVersion() { return version; }
+    public void setVersion(long version) { this.version = version; }
+}
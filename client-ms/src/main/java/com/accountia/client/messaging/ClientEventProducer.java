@@ -0,0 +1,89 @@
+package com.accountia.client.messaging;
+
+import com.accountia.client.config.RabbitMQConfig;
+import com.accountia.client.entity.Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Publie l'état complet d'un client à chaque écriture, pour les copies locales des autres services
+ * (business-ms). Chaque événement porte la révision du client : le consommateur ignore un état plus
+ * ancien que celui qu'il a déjà, l'ordre d'arrivée et les doublons n'ont donc pas d'importance.
+ *
+ * L'envoi a lieu après le commit : un client dont l'écriture est annulée n'est jamais publié.
+ */
+@Component
+@Profile("!ci")
+public class ClientEventProducer {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientEventProducer.class);
+
+    @Autowired
+    private RabbitTemplate rabbitTemplate;
+
+    public void publishClientCreated(Client client) {
+        afterCommit(RabbitMQConfig.CLIENT_CREATED_ROUTING_KEY, payload("CREATED", client, client.getRevision()));
+    }
+
+    public void publishClientUpdated(Client client) {
+        afterCommit(RabbitMQConfig.CLIENT_UPDATED_ROUTING_KEY, payload("UPDATED", client, client.getRevision()));
+    }
+
+    // Révision déjà incrémentée par ClientService.deleteClient
+    public void publishClientDeleted(Client client) {
+        afterCommit(RabbitMQConfig.CLIENT_DELETED_ROUTING_KEY, payload("DELETED", client, client.getRevision()));
+    }
+
+    private static Map<String, Object> payload(String eventType, Client client, long revision) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("eventType", eventType);
+        payload.put("clientId", client.getId());
+        payload.put("revision", revision);
+        payload.put("ownerSubject", client.getOwnerSubject());
+        payload.put("nomEntreprise", client.getNomEntreprise());
+        if (!"DELETED".equals(eventType)) {
+            payload.put("nom", client.getNom());
+            payload.put("prenom", client.getPrenom());
+            payload.put("email", client.getEmail());
+            payload.put("telephone", client.getTelephone());
+            payload.put("adresse", client.getAdresse());
+        }
+        payload.put("timestamp", Instant.now().toString());
+        return payload;
+    }
+
+    private void afterCommit(String routingKey, Map<String, Object> payload) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            send(routingKey, payload);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                send(routingKey, payload);
+            }
+        });
+    }
+
+    private void send(String routingKey, Map<String, Object> payload) {
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConfig.ACCOUNTIA_EXCHANGE, routingKey, payload);
+            log.debug("Événement {} publié pour le client {}", routingKey, payload.get("clientId"));
+        } catch (AmqpException e) {
+            // L'écriture est déjà validée : la copie de business-ms sera rattrapée par une republication
+            log.error("Échec de publication de {} pour le client {} : {}",
+                    routingKey, payload.get("clientId"), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.accountia.client.repository;
+
+import com.accountia.client.entity.ClientOwnerVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ClientOwnerVersionRepository extends JpaRepository<ClientOwnerVersion, String> {
+
+    // Version globale (administrateurs) : les compteurs ne font que croître, leur somme aussi
+    @Query("SELECT COALESCE(SUM(v.version), 0) FROM ClientOwnerVersion v")
+    long sumVersions();
+}
@@ -2,6 +2,7 @@ package com.accountia.client.repository;
 
 import com.accountia.client.entity.Client;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -25,5 +26,14 @@ public interface ClientRepository extends JpaRepository<Client, Integer> {
     List<Client> findByOwnerSubjectAndNomContaining(String ownerSubject, String nom);
 
     List<Client> findByOwnerSubjectAndNomEntrepriseContainingIgnoreCase(String ownerSubject, String nomEntreprise);
+
+    // Révision incrémentée par la base : le verrou de ligne ordonne les écritures concurrentes,
+    // chacune reçoit sa propre révision (les lignes antérieures à la colonne partent de 0)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Client c SET c.revision = COALESCE(c.revision, 0) + 1 WHERE c.id = :id")
+    int incrementRevision(@Param("id") Integer id);
+
+    @Query("SELECT c.revision FROM Client c WHERE c.id = :id")
+    Long findRevisionById(@Param("id") Integer id);
 }
 
@@ -1,11 +1,14 @@
 package com.accountia.client.service;
 
 import com.accountia.client.entity.Client;
+import com.accountia.client.messaging.ClientEventProducer;
 import com.accountia.client.repository.ClientRepository;
 import com.accountia.client.util.SecurityUtil;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,7 +19,15 @@ public class ClientService {
     @Autowired
     private ClientRepository clientRepository;
 
+    @Autowired
+    private ClientVersionService clientVersionService;
+
+    // Absent en profil ci (pas de RabbitMQ)
+    @Autowired
+    private ObjectProvider<ClientEventProducer> clientEventProducer;
+
     // GET ALL
+    @Transactional(readOnly = true)
     public List<Client> getAllClients() {
         if (SecurityUtil.isAdmin()) {
             return clientRepository.findAll();
@@ -29,12 +40,14 @@ public class ClientService {
     }
 
     // GET BY ID
+    @Transactional(readOnly = true)
     public Optional<Client> getClientById(Integer id) {
         return clientRepository.findById(id)
                 .filter(this::canAccessClient);
     }
 
     // GET BY NOM
+    @Transactional(readOnly = true)
     public List<Client> getClientsByNom(String nom) {
         if (SecurityUtil.isAdmin()) {
             return clientRepository.findByNomContaining(nom);
@@ -47,6 +60,7 @@ public class ClientService {
     }
 
     // GET BY NOM ENTREPRISE
+    @Transactional(readOnly = true)
     public List<Client> getClientsByNomEntreprise(String nomEntreprise) {
         if (SecurityUtil.isAdmin()) {
             return clientRepository.findByNomEntrepriseContainingIgnoreCase(nomEntreprise);
@@ -61,10 +75,15 @@ public class ClientService {
     // CREATE
     public Client createClient(Client client) {
         client.setOwnerSubject(SecurityUtil.getCurrentSubject());
-        return clientRepository.save(client);
+        client.setRevision(1);
+        Client created = clientRepository.save(client);
+        clientVersionService.bump(created.getOwnerSubject());
+        clientEventProducer.ifAvailable(producer -> producer.publishClientCreated(created));
+        return created;
     }
 
     // UPDATE
+    @Transactional
     public Client updateClient(Integer id, Client newClient) {
         return clientRepository.findById(id).map(existing -> {
             ensureOwnershipOrAdmin(existing);
@@ -74,21 +93,52 @@ public class ClientService {
             existing.setTelephone(newClient.getTelephone());
             existing.setAdresse(newClient.getAdresse());
             existing.setNomEntreprise(newClient.getNomEntreprise());
-            return clientRepository.save(existing);
+            Client updated = clientRepository.save(existing);
+            updated.setRevision(nextRevision(id));
+            clientVersionService.bump(updated.getOwnerSubject());
+            clientEventProducer.ifAvailable(producer -> producer.publishClientUpdated(updated));
+            return updated;
         }).orElse(null);
     }
 
     // DELETE
+    @Transactional
     public String deleteClient(Integer id) {
         Optional<Client> existing = clientRepository.findById(id);
         if (existing.isPresent()) {
             ensureOwnershipOrAdmin(existing.get());
+            // La suppression est une révision de plus : une mise à jour en retard ne fait pas réapparaître le client
+            existing.get().setRevision(nextRevision(id));
             clientRepository.deleteById(id);
+            clientVersionService.bump(existing.get().getOwnerSubject());
+            clientEventProducer.ifAvailable(producer -> producer.publishClientDeleted(existing.get()));
             return "Client supprimé avec succès";
         }
         return "Client introuvable";
     }
 
+    // REPUBLISH - réservé aux administrateurs : initialise ou rattrape les copies locales des autres services
+    @Transactional(readOnly = true)
+    public int republishAll() {
+        if (!SecurityUtil.isAdmin()) {
+            throw new AccessDeniedException("Acces refuse: republication reservee aux administrateurs");
+        }
+        ClientEventProducer producer = clientEventProducer.getIfAvailable();
+        if (producer == null) {
+            throw new IllegalStateException("Publication des événements client désactivée");
+        }
+        List<Client> clients = clientRepository.findAll();
+        clients.forEach(producer::publishClientUpdated);
+        return clients.size();
+    }
+
+    // À appeler dans la transaction de l'écriture, après les modifications de l'entité : l'UPDATE
+    // verrouille la ligne jusqu'au commit, la révision relue est donc celle de ce contenu
+    private long nextRevision(Integer id) {
+        clientRepository.incrementRevision(id);
+        return clientRepository.findRevisionById(id);
+    }
+
     private void ensureOwnershipOrAdmin(Client client) {
         if (canAccessClient(client)) {
             return;
@@ -0,0 +1,30 @@
+package com.accountia.expense.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Transport des clients Feign : Apache HttpClient 5 (feign-hc5), configuré par
+ * spring.cloud.openfeign.httpclient (taille du pool, keep-alive, timeouts).
+ *
+ * Expose l'état du pool partagé par les clients Feign (connexions disponibles, louées, en attente)
+ * sous httpcomponents.httpclient.pool.* ; la latence des appels est mesurée par feign-micrometer
+ * (http.client.requests, par client).
+ */
+@Configuration
+public class FeignHttpClientConfig {
+
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(ObjectProvider<HttpClientConnectionManager> connectionManager) {
+        return registry -> {
+            if (connectionManager.getIfAvailable() instanceof PoolingHttpClientConnectionManager pool) {
+                new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign").bindTo(registry);
+            }
+        };
+    }
+}
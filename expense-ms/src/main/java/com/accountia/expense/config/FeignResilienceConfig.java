@@ -0,0 +1,135 @@
+package com.accountia.expense.config;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.core.registry.EntryAddedEvent;
+import io.github.resilience4j.core.registry.EntryRemovedEvent;
+import io.github.resilience4j.core.registry.EntryReplacedEvent;
+import io.github.resilience4j.core.registry.RegistryEventConsumer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+import org.springframework.cloud.client.circuitbreaker.Customizer;
+import org.springframework.cloud.openfeign.CircuitBreakerNameResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Map;
+
+/**
+ * Disjoncteur, bulkhead et time limiter Resilience4j autour des clients Feign
+ * (spring.cloud.openfeign.circuitbreaker.enabled), configurés par resilience4j.* depuis le config-server.
+ *
+ * Un jeu par client Feign, nommé comme le service cible (client-ms, business-ms) et partagé par ses
+ * méthodes. Le bulkhead sémaphore borne les appels simultanés vers une cible : au-delà, la fallback
+ * répond tout de suite au lieu d'immobiliser un thread Tomcat de plus. Le time limiter exécute l'appel
+ * sur un pool dédié ; la requête HTTP, le contexte de sécurité et le MDC de l'appelant y sont recopiés.
+ *
+ * Métriques : resilience4j.circuitbreaker.*, resilience4j.bulkhead.*, resilience4j.timelimiter.*,
+ * plus feign.circuitbreaker.transitions et feign.bulkhead.rejected.
+ */
+@Configuration
+public class FeignResilienceConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(FeignResilienceConfig.class);
+
+    @Bean
+    public CircuitBreakerNameResolver circuitBreakerNameResolver() {
+        return (feignClientName, target, method) -> feignClientName;
+    }
+
+    @Bean
+    public Customizer<Resilience4JCircuitBreakerFactory> feignCallExecutorCustomizer(
+            @Value("${accountia.feign.executor.max-threads:64}") int maxThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("feign-call-");
+        executor.setCorePoolSize(maxThreads);
+        executor.setMaxPoolSize(maxThreads);
+        // Pas de file : les bulkheads bornent déjà le nombre d'appels en cours
+        executor.setQueueCapacity(0);
+        executor.setAllowCoreThreadTimeOut(true);
+        executor.setDaemon(true);
+        executor.setTaskDecorator(FeignResilienceConfig::withCallerContext);
+        executor.initialize();
+        return factory -> factory.configureExecutorService(executor.getThreadPoolExecutor());
+    }
+
+    @Bean
+    public RegistryEventConsumer<CircuitBreaker> circuitBreakerTransitionMetrics(MeterRegistry meterRegistry) {
+        return new RegistryEventConsumer<>() {
+            @Override
+            public void onEntryAddedEvent(EntryAddedEvent<CircuitBreaker> event) {
+                CircuitBreaker circuitBreaker = event.getAddedEntry();
+                circuitBreaker.getEventPublisher().onStateTransition(transition -> {
+                    CircuitBreaker.StateTransition change = transition.getStateTransition();
+                    log.warn("Disjoncteur {} : {} -> {}", circuitBreaker.getName(), change.getFromState(), change.getToState());
+                    Counter.builder("feign.circuitbreaker.transitions")
+                            .description("Changements d'état des disjoncteurs Feign")
+                            .tag("name", circuitBreaker.getName())
+                            .tag("from", change.getFromState().name())
+                            .tag("to", change.getToState().name())
+                            .register(meterRegistry)
+                            .increment();
+                });
+            }
+
+            @Override
+            public void onEntryRemovedEvent(EntryRemovedEvent<CircuitBreaker> event) {
+            }
+
+            @Override
+            public void onEntryReplacedEvent(EntryReplacedEvent<CircuitBreaker> event) {
+            }
+        };
+    }
+
+    @Bean
+    public RegistryEventConsumer<Bulkhead> bulkheadRejectionMetrics(MeterRegistry meterRegistry) {
+        return new RegistryEventConsumer<>() {
+            @Override
+            public void onEntryAddedEvent(EntryAddedEvent<Bulkhead> event) {
+                Bulkhead bulkhead = event.getAddedEntry();
+                Counter rejected = Counter.builder("feign.bulkhead.rejected")
+                        .description("Appels Feign refusés par un bulkhead plein")
+                        .tag("name", bulkhead.getName())
+                        .register(meterRegistry);
+                bulkhead.getEventPublisher().onCallRejected(e -> rejected.increment());
+            }
+
+            @Override
+            public void onEntryRemovedEvent(EntryRemovedEvent<Bulkhead> event) {
+            }
+
+            @Override
+            public void onEntryReplacedEvent(EntryReplacedEvent<Bulkhead> event) {
+            }
+        };
+    }
+
+    private static Runnable withCallerContext(Runnable task) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        SecurityContext security = SecurityContextHolder.getContext();
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return () -> {
+            RequestContextHolder.setRequestAttributes(request);
+            SecurityContextHolder.setContext(security);
+            if (mdc != null) MDC.setContextMap(mdc);
+            try {
+                task.run();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+                SecurityContextHolder.clearContext();
+                MDC.clear();
+            }
+        };
+    }
+}
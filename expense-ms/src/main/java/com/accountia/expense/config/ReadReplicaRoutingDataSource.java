@@ -0,0 +1,110 @@
+package com.accountia.expense.config;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Routage des connexions entre le primaire et la réplique.
+ *
+ * Une transaction {@code readOnly} lit sur la réplique, tout le reste (écritures, requêtes hors
+ * transaction) va au primaire. À placer derrière un {@code LazyConnectionDataSourceProxy} : la
+ * connexion physique n'est choisie qu'à la première requête SQL, une fois la transaction ouverte.
+ *
+ * Lecture de ses propres écritures : après le commit d'une transaction en écriture faite pour une
+ * requête HTTP, la réponse pose le cookie {@value #LAST_WRITE_COOKIE} (heure de l'écriture). Pendant
+ * la fenêtre configurée, les lectures des requêtes qui le renvoient restent sur le primaire, quelle
+ * que soit l'instance qui les reçoit ; le cookie suit le client vers tous les services de la passerelle.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route { PRIMARY, REPLICA }
+
+    public static final String LAST_WRITE_COOKIE = "ACCOUNTIA_LAST_WRITE";
+
+    // Écriture faite plus tôt dans la même requête HTTP, avant que le client ne renvoie le cookie
+    private static final String LAST_WRITE_ATTRIBUTE = ReadReplicaRoutingDataSource.class.getName() + ".lastWrite";
+
+    private final long readYourWritesMillis;
+
+    public ReadReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration readYourWrites) {
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.readYourWritesMillis = readYourWrites.toMillis();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        ServletRequestAttributes request = currentRequest();
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return wroteRecently(request) ? Route.PRIMARY : Route.REPLICA;
+        }
+        if (request != null && readYourWritesMillis > 0
+                && TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recordWrite(request);
+                }
+            });
+        }
+        return Route.PRIMARY;
+    }
+
+    // ─── LECTURE DE SES PROPRES ÉCRITURES ──────────────────────
+
+    private boolean wroteRecently(ServletRequestAttributes request) {
+        if (request == null || readYourWritesMillis <= 0) return false;
+        long lastWrite = lastWrite(request.getRequest());
+        if (lastWrite <= 0) return false;
+        // Écart d'horloge entre instances toléré dans les deux sens, borné par la fenêtre
+        long age = System.currentTimeMillis() - lastWrite;
+        return age > -readYourWritesMillis && age < readYourWritesMillis;
+    }
+
+    private void recordWrite(ServletRequestAttributes attributes) {
+        HttpServletRequest request = attributes.getRequest();
+        boolean first = request.getAttribute(LAST_WRITE_ATTRIBUTE) == null;
+        long now = System.currentTimeMillis();
+        request.setAttribute(LAST_WRITE_ATTRIBUTE, now);
+        HttpServletResponse response = attributes.getResponse();
+        if (!first || response == null || response.isCommitted()) return;
+        Cookie cookie = new Cookie(LAST_WRITE_COOKIE, Long.toString(now));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge((int) Math.max(1, (readYourWritesMillis + 999) / 1000));
+        cookie.setAttribute("SameSite", "Lax");
+        response.addCookie(cookie);
+    }
+
+    private static long lastWrite(HttpServletRequest request) {
+        if (request.getAttribute(LAST_WRITE_ATTRIBUTE) instanceof Long written) return written;
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return 0;
+        for (Cookie cookie : cookies) {
+            if (!LAST_WRITE_COOKIE.equals(cookie.getName())) continue;
+            try {
+                return Long.parseLong(cookie.getValue());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+
+    private static ServletRequestAttributes currentRequest() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes instanceof ServletRequestAttributes servlet ? servlet : null;
+    }
+}
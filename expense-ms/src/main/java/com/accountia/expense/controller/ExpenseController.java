@@ -4,7 +4,10 @@ import com.accountia.expense.dto.ExpenseDetailsDTO;
 import com.accountia.expense.dto.ExpenseRequest;
 import com.accountia.expense.entity.Expense;
 import com.accountia.expense.service.ExpenseService;
+import com.accountia.expense.service.ExpenseVersionService;
 import jakarta.validation.Valid;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,18 +20,22 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/expense")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = HttpHeaders.ETAG)
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final ExpenseVersionService expenseVersionService;
 
-    public ExpenseController(ExpenseService expenseService) {
+    public ExpenseController(ExpenseService expenseService, ExpenseVersionService expenseVersionService) {
         this.expenseService = expenseService;
+        this.expenseVersionService = expenseVersionService;
     }
 
     @GetMapping("/health")
@@ -37,10 +44,12 @@ public class ExpenseController {
     }
 
     @GetMapping("/expenses")
-    public ResponseEntity<List<Expense>> getAll() {
-        List<Expense> expenses = expenseService.getAll();
-        if (expenses.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(expenses);
+    public ResponseEntity<List<Expense>> getAll(WebRequest request) {
+        return conditional(request, () -> {
+            List<Expense> expenses = expenseService.getAll();
+            if (expenses.isEmpty()) return ResponseEntity.noContent().build();
+            return ResponseEntity.ok(expenses);
+        });
     }
 
     @GetMapping("/expenses/{id}")
@@ -58,10 +67,12 @@ public class ExpenseController {
     }
 
     @GetMapping("/expenses/categorie/{categorie}")
-    public ResponseEntity<List<Expense>> getByCategorie(@PathVariable String categorie) {
-        List<Expense> expenses = expenseService.getByCategorie(categorie);
-        if (expenses.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(expenses);
+    public ResponseEntity<List<Expense>> getByCategorie(@PathVariable String categorie, WebRequest request) {
+        return conditional(request, () -> {
+            List<Expense> expenses = expenseService.getByCategorie(categorie);
+            if (expenses.isEmpty()) return ResponseEntity.noContent().build();
+            return ResponseEntity.ok(expenses);
+        });
     }
 
     @PostMapping(value = "/expenses", consumes = MediaType.APPLICATION_JSON_VALUE)
@@ -93,4 +104,21 @@ public class ExpenseController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
         }
     }
+
+    // Lecture conditionnelle : si le If-None-Match correspond à la version courante du
+    // propriétaire, 304 sans lire la base ni sérialiser la réponse
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<ResponseEntity<T>> read) {
+        return expenseVersionService.readWithETag(etag -> {
+            if (etag == null) return read.get();
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).<T>build();
+            }
+            ResponseEntity<T> response = read.get();
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(response.getHeaders())
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(response.getBody());
+        });
+    }
 }
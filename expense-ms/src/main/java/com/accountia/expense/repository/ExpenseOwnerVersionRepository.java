@@ -0,0 +1,12 @@
+package com.accountia.expense.repository;
+
+import com.accountia.expense.entity.ExpenseOwnerVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+public interface ExpenseOwnerVersionRepository extends JpaRepository<ExpenseOwnerVersion, String> {
+
+    // Version globale (administrateurs) : les compteurs ne font que croître, leur somme aussi
+    @Query("SELECT COALESCE(SUM(v.version), 0) FROM ExpenseOwnerVersion v")
+    long sumVersions();
+}
@@ -15,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -27,15 +28,19 @@ public class ExpenseService {
     private final ExpenseRepository expenseRepository;
     private final BusinessFeignClient businessFeignClient;
     private final ClientFeignClient clientFeignClient;
+    private final ExpenseVersionService versionService;
 
     public ExpenseService(ExpenseRepository expenseRepository,
                           BusinessFeignClient businessFeignClient,
-                          ClientFeignClient clientFeignClient) {
+                          ClientFeignClient clientFeignClient,
+                          ExpenseVersionService versionService) {
         this.expenseRepository = expenseRepository;
         this.businessFeignClient = businessFeignClient;
         this.clientFeignClient = clientFeignClient;
+        this.versionService = versionService;
     }
 
+    @Transactional(readOnly = true)
     public List<Expense> getAll() {
         if (SecurityUtil.isAdmin()) {
             return expenseRepository.findAll();
@@ -47,6 +52,7 @@ public class ExpenseService {
         return expenseRepository.findByOwnerSubject(subject);
     }
 
+    @Transactional(readOnly = true)
     public Optional<Expense> getById(Long id) {
         if (SecurityUtil.isAdmin()) {
             return expenseRepository.findById(id);
@@ -58,6 +64,7 @@ public class ExpenseService {
         return expenseRepository.findByIdAndOwnerSubject(id, subject);
     }
 
+    @Transactional(readOnly = true)
     public List<Expense> getByCategorie(String categorie) {
         if (SecurityUtil.isAdmin()) {
             return expenseRepository.findByCategorieIgnoreCase(categorie);
@@ -82,9 +89,12 @@ public class ExpenseService {
         expense.setBusinessId(request.getBusinessId());
         expense.setClientId(request.getClientId());
         expense.setOwnerSubject(SecurityUtil.getCurrentSubject());
-        return expenseRepository.save(expense);
+        Expense created = expenseRepository.save(expense);
+        versionService.bump(created.getOwnerSubject());
+        return created;
     }
 
+    @Transactional
     public Expense update(Long id, ExpenseRequest request) {
         Expense existing = expenseRepository.findById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Depense introuvable avec id: " + id));
@@ -105,14 +115,18 @@ public class ExpenseService {
             existing.setClientId(request.getClientId());
         }
 
-        return expenseRepository.save(existing);
+        Expense updated = expenseRepository.save(existing);
+        versionService.bump(updated.getOwnerSubject());
+        return updated;
     }
 
+    @Transactional
     public void delete(Long id) {
         Expense existing = expenseRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Depense introuvable avec id: " + id));
         ensureOwnershipOrAdmin(existing);
         expenseRepository.deleteById(id);
+        versionService.bump(existing.getOwnerSubject());
     }
 
     public Optional<ExpenseDetailsDTO> getByIdWithRelations(Long id) {
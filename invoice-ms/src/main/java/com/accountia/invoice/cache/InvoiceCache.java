@@ -0,0 +1,124 @@
+package com.accountia.invoice.cache;
+
+import com.accountia.invoice.messaging.InvoiceCacheBroadcaster;
+import com.accountia.invoice.model.Invoice;
+import com.accountia.invoice.repository.InvoiceRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cache local des factures lues par id, devant {@code invoiceRepository.findById}.
+ *
+ * Borné en taille et en durée de vie ({@code invoice.cache.maximum-size}, {@code invoice.cache.ttl}).
+ * Chaque écriture retire les factures concernées après commit, localement puis sur les autres
+ * instances via l'exchange fanout {@code invoice.cache.fanout}. Un chargement en cours pendant
+ * une invalidation est retiré à la fin du chargement ; si la diffusion échoue, la durée de vie
+ * borne la période pendant laquelle une autre instance peut servir une version périmée.
+ *
+ * Le cache ne contrôle pas l'accès : l'appelant vérifie le propriétaire sur la facture rendue.
+ * Les factures rendues sont des copies détachées, modifiables sans effet sur le cache.
+ */
+@Component
+public class InvoiceCache {
+
+    public static final String CACHE_NAME = "invoices";
+
+    private final InvoiceRepository invoiceRepository;
+    private final ObjectProvider<InvoiceCacheBroadcaster> broadcaster;
+    private final boolean enabled;
+    private final Cache<Long, Invoice> cache;
+
+    private final Counter localInvalidations;
+    private final Counter remoteInvalidations;
+
+    public InvoiceCache(InvoiceRepository invoiceRepository,
+                        ObjectProvider<InvoiceCacheBroadcaster> broadcaster,
+                        MeterRegistry meterRegistry,
+                        @Value("${invoice.cache.enabled:true}") boolean enabled,
+                        @Value("${invoice.cache.maximum-size:10000}") long maximumSize,
+                        @Value("${invoice.cache.ttl:5m}") Duration ttl) {
+        this.invoiceRepository = invoiceRepository;
+        this.broadcaster = broadcaster;
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // cache.gets{result=hit|miss}, cache.evictions, cache.size...
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        this.localInvalidations = invalidationCounter(meterRegistry, "local");
+        this.remoteInvalidations = invalidationCounter(meterRegistry, "remote");
+    }
+
+    // ─── LECTURE ────────────────────────────────────────────────
+
+    public Optional<Invoice> findById(Long id) {
+        if (!enabled || id == null) return invoiceRepository.findById(id);
+        // Une facture absente n'est pas mise en cache
+        Invoice cached = cache.get(id, key -> invoiceRepository.findReadOnlyById(key).map(Invoice::copy).orElse(null));
+        return Optional.ofNullable(cached).map(Invoice::copy);
+    }
+
+    // ─── INVALIDATION ───────────────────────────────────────────
+
+    /**
+     * Retire les factures du cache après commit de la transaction courante (immédiatement hors
+     * transaction), puis diffuse l'invalidation aux autres instances.
+     */
+    public void evict(Long invoiceId) {
+        evict(List.of(invoiceId));
+    }
+
+    public void evict(Collection<Long> invoiceIds) {
+        if (!enabled || invoiceIds.isEmpty()) return;
+        List<Long> ids = List.copyOf(invoiceIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictAndBroadcast(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictAndBroadcast(ids);
+            }
+        });
+    }
+
+    /**
+     * Invalidation reçue d'une autre instance : retrait local uniquement.
+     */
+    public void evictRemote(Collection<Long> invoiceIds) {
+        if (!enabled) return;
+        cache.invalidateAll(invoiceIds);
+        remoteInvalidations.increment(invoiceIds.size());
+    }
+
+    private void evictAndBroadcast(List<Long> ids) {
+        cache.invalidateAll(ids);
+        localInvalidations.increment(ids.size());
+        broadcaster.ifAvailable(b -> b.broadcast(ids));
+    }
+
+    // ─── HELPERS ────────────────────────────────────────────────
+
+    private static Counter invalidationCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("invoice.cache.invalidations")
+                .description("Factures retirées du cache après une écriture, par origine")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,58 @@
+package com.accountia.invoice.config;
+
+import com.accountia.invoice.model.Invoice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Aligne le générateur d'ids des factures sur les données existantes.
+ *
+ * Les factures créées avant le passage au générateur par table ont des ids IDENTITY ;
+ * sans ce recalage, le premier bloc réservé recommencerait à 1 et entrerait en collision.
+ * S'exécute après la mise à jour du schéma par Hibernate et avant l'ouverture du port HTTP.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class InvoiceIdGeneratorInitializer implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceIdGeneratorInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    public InvoiceIdGeneratorInitializer(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM invoices", Long.class);
+            // Avec l'optimiseur pooled, le bloc servi est ]next_val - allocationSize, next_val]
+            long floor = maxId + Invoice.ID_ALLOCATION_SIZE + 1;
+
+            List<Long> current = jdbcTemplate.queryForList(
+                    "SELECT next_val FROM " + Invoice.ID_GENERATOR_TABLE + " WHERE sequence_name = ? FOR UPDATE",
+                    Long.class, Invoice.ID_GENERATOR_KEY);
+            if (current.isEmpty()) {
+                jdbcTemplate.update(
+                        "INSERT INTO " + Invoice.ID_GENERATOR_TABLE + " (sequence_name, next_val) VALUES (?, ?)",
+                        Invoice.ID_GENERATOR_KEY, floor);
+                log.info("Générateur d'ids des factures initialisé à {}", floor);
+            } else if (current.get(0) < floor) {
+                jdbcTemplate.update(
+                        "UPDATE " + Invoice.ID_GENERATOR_TABLE + " SET next_val = ? WHERE sequence_name = ?",
+                        floor, Invoice.ID_GENERATOR_KEY);
+                log.info("Générateur d'ids des factures recalé de {} à {}", current.get(0), floor);
+            }
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package com.accountia.invoice.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Partitionne la table {@code invoices} par tenant sur MySQL : {@code PARTITION BY KEY(tenant_id)}.
+ *
+ * MySQL impose que la colonne de partitionnement figure dans chaque clé unique : la clé primaire
+ * devient (id, tenant_id), id restant unique par le générateur. Hibernate (ddl-auto=update) ne
+ * revient pas sur ces choix. Opération lourde sur une table existante (recopie complète), donc
+ * désactivée par défaut ({@code invoice.partitioning.enabled}) et sans effet si la table est
+ * déjà partitionnée ou si la base n'est pas MySQL.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class InvoicePartitioningInitializer implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoicePartitioningInitializer.class);
+
+    private static final String COUNT_PARTITIONS_SQL = "SELECT COUNT(*) FROM information_schema.PARTITIONS"
+            + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'invoices' AND PARTITION_NAME IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final int partitions;
+
+    public InvoicePartitioningInitializer(JdbcTemplate jdbcTemplate,
+                                          @Value("${invoice.partitioning.enabled:false}") boolean enabled,
+                                          @Value("${invoice.partitioning.partitions:16}") int partitions) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.partitions = partitions;
+    }
+
+    @Override
+    public void afterPropertiesSet() throws Exception {
+        if (!enabled) return;
+        String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                metaData -> metaData.getDatabaseProductName());
+        if (!"MySQL".equalsIgnoreCase(product)) {
+            log.info("Partitionnement des factures ignoré : base {} (MySQL uniquement)", product);
+            return;
+        }
+        Integer existing = jdbcTemplate.queryForObject(COUNT_PARTITIONS_SQL, Integer.class);
+        if (existing != null && existing > 0) return;
+
+        long start = System.currentTimeMillis();
+        jdbcTemplate.execute("ALTER TABLE invoices DROP PRIMARY KEY, ADD PRIMARY KEY (id, tenant_id)");
+        jdbcTemplate.execute("ALTER TABLE invoices PARTITION BY KEY(tenant_id) PARTITIONS " + partitions);
+        log.info("Table invoices partitionnée par tenant_id ({} partitions) en {} ms",
+                partitions, System.currentTimeMillis() - start);
+    }
+}
@@ -1,13 +1,19 @@
 package com.accountia.invoice.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.batch.SimpleBatchingStrategy;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.BatchingRabbitTemplate;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
 /**
  * RabbitMQ configuration for Invoice microservice.
@@ -19,6 +25,8 @@ public class RabbitMQConfig {
     // Exchange names
     public static final String ACCOUNTIA_EXCHANGE = "accountia.exchange";
     public static final String ACCOUNTIA_DLX_EXCHANGE = "accountia.dlx.exchange";
+    public static final String INVOICE_CACHE_EXCHANGE = "invoice.cache.fanout";
+    public static final String INVOICE_SEARCH_EXCHANGE = "invoice.search.fanout";
 
     // Queue names
     public static final String INVOICE_QUEUE = "invoice.queue";
@@ -31,6 +39,8 @@ public class RabbitMQConfig {
     public static final String INVOICE_CREATED_ROUTING_KEY = "invoice.created";
     public static final String INVOICE_UPDATED_ROUTING_KEY = "invoice.updated";
     public static final String INVOICE_DELETED_ROUTING_KEY = "invoice.deleted";
+    public static final String INVOICE_OVERDUE_ROUTING_KEY = "invoice.overdue";
+    public static final String INVOICE_STATUS_CHANGED_ROUTING_KEY = "invoice.status.changed";
 
     // Main Exchange
     @Bean
@@ -77,6 +87,41 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(INVOICE_DLQ).build();
     }
 
+    // Invalidation du cache des factures : chaque instance reçoit toutes les invalidations
+    @Bean
+    public FanoutExchange invoiceCacheExchange() {
+        return new FanoutExchange(INVOICE_CACHE_EXCHANGE, true, false);
+    }
+
+    // File propre à l'instance (exclusive, supprimée à la déconnexion)
+    @Bean
+    public Queue invoiceCacheQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("invoice.cache."));
+    }
+
+    @Bean
+    public Binding invoiceCacheBinding(@Qualifier("invoiceCacheQueue") Queue invoiceCacheQueue,
+                                        @Qualifier("invoiceCacheExchange") FanoutExchange invoiceCacheExchange) {
+        return BindingBuilder.bind(invoiceCacheQueue).to(invoiceCacheExchange);
+    }
+
+    // Index des noms de client : chaque instance reçoit les changements faits par les autres
+    @Bean
+    public FanoutExchange invoiceSearchExchange() {
+        return new FanoutExchange(INVOICE_SEARCH_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Queue invoiceSearchQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("invoice.search."));
+    }
+
+    @Bean
+    public Binding invoiceSearchBinding(@Qualifier("invoiceSearchQueue") Queue invoiceSearchQueue,
+                                         @Qualifier("invoiceSearchExchange") FanoutExchange invoiceSearchExchange) {
+        return BindingBuilder.bind(invoiceSearchQueue).to(invoiceSearchExchange);
+    }
+
     // Bindings
     @Bean
     public Binding invoiceBinding(@Qualifier("invoiceQueue") Queue invoiceQueue,
@@ -109,10 +154,30 @@ public class RabbitMQConfig {
     }
 
     // RabbitTemplate with JSON converter
+    // mandatory : les messages non routés sont renvoyés (ReturnsCallback posé par RabbitPublisher)
     @Bean
+    @Primary
     public RabbitTemplate rabbitTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
         rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMandatory(true);
         return rabbitTemplate;
     }
+
+    // Agrégation des envois "fire and forget" en lots (désactivée par défaut)
+    @Bean
+    @ConditionalOnProperty(name = "accountia.rabbitmq.publisher.batching.enabled", havingValue = "true")
+    public BatchingRabbitTemplate batchingRabbitTemplate(
+            ConnectionFactory connectionFactory,
+            @Value("${accountia.rabbitmq.publisher.batching.size:100}") int batchSize,
+            @Value("${accountia.rabbitmq.publisher.batching.buffer-limit:65536}") int bufferLimit,
+            @Value("${accountia.rabbitmq.publisher.batching.timeout-ms:50}") long timeoutMs) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("rabbit-batch-");
+        scheduler.initialize();
+        BatchingRabbitTemplate template = new BatchingRabbitTemplate(connectionFactory,
+                new SimpleBatchingStrategy(batchSize, bufferLimit, timeoutMs), scheduler);
+        template.setMessageConverter(jsonMessageConverter());
+        return template;
+    }
 }
@@ -0,0 +1,36 @@
+package com.accountia.invoice.config;
+
+import com.accountia.invoice.model.Invoice;
+import com.accountia.invoice.util.SecurityUtil;
+import org.hibernate.Session;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Gestionnaire de transactions JPA qui active le filtre de tenant des factures au début de chaque
+ * transaction, à partir du claim {@code tenant_id} du jeton. Toutes les requêtes JPQL et dérivées
+ * de la transaction reçoivent alors {@code tenant_id = ?} sans que les repositories aient à le passer.
+ *
+ * Sans tenant (jeton sans claim, jobs planifiés), le filtre est désactivé : l'EntityManager peut
+ * être partagé entre plusieurs transactions d'une même requête (open-in-view).
+ * Les lectures par id et les requêtes SQL directes (JdbcTemplate) ne sont pas filtrées.
+ */
+public class TenantFilterJpaTransactionManager extends JpaTransactionManager {
+
+    @Override
+    protected void doBegin(Object transaction, TransactionDefinition definition) {
+        super.doBegin(transaction, definition);
+        EntityManagerHolder holder =
+                (EntityManagerHolder) TransactionSynchronizationManager.getResource(obtainEntityManagerFactory());
+        if (holder == null) return;
+        Session session = holder.getEntityManager().unwrap(Session.class);
+        String tenant = SecurityUtil.getCurrentTenant();
+        if (tenant != null) {
+            session.enableFilter(Invoice.TENANT_FILTER).setParameter(Invoice.TENANT_PARAM, tenant);
+        } else {
+            session.disableFilter(Invoice.TENANT_FILTER);
+        }
+    }
+}
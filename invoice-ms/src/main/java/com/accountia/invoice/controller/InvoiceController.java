@@ -1,22 +1,69 @@
 package com.accountia.invoice.controller;
 
+import com.accountia.invoice.dto.BatchItemResult;
+import com.accountia.invoice.dto.InvoiceAggregate;
+import com.accountia.invoice.dto.InvoiceAging;
 import com.accountia.invoice.dto.InvoiceDTO;
+import com.accountia.invoice.dto.InvoiceNumberGap;
+import com.accountia.invoice.dto.InvoicePage;
+import com.accountia.invoice.dto.InvoicePatch;
+import com.accountia.invoice.dto.InvoiceStatusSummary;
+import com.accountia.invoice.dto.InvoiceStatusTransition;
+import com.accountia.invoice.dto.InvoiceView;
+import com.accountia.invoice.dto.RecurringInvoiceRequest;
+import com.accountia.invoice.dto.RecurringSchedulePage;
 import com.accountia.invoice.model.Invoice;
+import com.accountia.invoice.model.RecurringInvoiceSchedule;
+import com.accountia.invoice.service.InvoiceAggregateService;
+import com.accountia.invoice.service.InvoiceAgingService;
+import com.accountia.invoice.service.InvoiceExportService;
 import com.accountia.invoice.service.InvoiceService;
+import com.accountia.invoice.service.InvoiceStatusTransitionService;
+import com.accountia.invoice.service.InvoiceSummaryService;
+import com.accountia.invoice.service.InvoiceVersionService;
+import com.accountia.invoice.service.RecurringInvoiceService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/invoice")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {InvoiceController.NEXT_CURSOR_HEADER, HttpHeaders.ETAG})
 public class InvoiceController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     private final InvoiceService invoiceService;
+    private final InvoiceExportService invoiceExportService;
+    private final InvoiceAggregateService invoiceAggregateService;
+    private final InvoiceAgingService invoiceAgingService;
+    private final InvoiceSummaryService invoiceSummaryService;
+    private final InvoiceVersionService invoiceVersionService;
+    private final InvoiceStatusTransitionService invoiceStatusTransitionService;
+    private final RecurringInvoiceService recurringInvoiceService;
 
-    public InvoiceController(InvoiceService invoiceService) {
+    public InvoiceController(InvoiceService invoiceService,
+                             InvoiceExportService invoiceExportService,
+                             InvoiceAggregateService invoiceAggregateService,
+                             InvoiceAgingService invoiceAgingService,
+                             InvoiceSummaryService invoiceSummaryService,
+                             InvoiceVersionService invoiceVersionService,
+                             InvoiceStatusTransitionService invoiceStatusTransitionService,
+                             RecurringInvoiceService recurringInvoiceService) {
         this.invoiceService = invoiceService;
+        this.invoiceExportService = invoiceExportService;
+        this.invoiceAggregateService = invoiceAggregateService;
+        this.invoiceAgingService = invoiceAgingService;
+        this.invoiceSummaryService = invoiceSummaryService;
+        this.invoiceVersionService = invoiceVersionService;
+        this.invoiceStatusTransitionService = invoiceStatusTransitionService;
+        this.recurringInvoiceService = recurringInvoiceService;
     }
 
     // ─── HEALTH ──────────────────────────────────────────────────
@@ -25,12 +72,14 @@ public class InvoiceController {
         return ResponseEntity.ok("invoice-ms up");
     }
 
-    // ─── GET ALL - /api/invoice/invoices ─────────────────────────
+    // ─── GET ALL - /api/invoice/invoices?cursor=...&size=50 ──────
+    // tenantId : restreint une liste administrateur à un tenant (ignoré si le jeton porte déjà un tenant)
     @GetMapping("/invoices")
-    public ResponseEntity<List<Invoice>> getAllInvoices() {
-        List<Invoice> invoices = invoiceService.getAllInvoices();
-        if (invoices.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<InvoiceView>> getAllInvoices(@RequestParam(required = false) String tenantId,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) Integer size,
+                                                        WebRequest request) {
+        return conditional(request, () -> toResponse(invoiceService.getAllInvoices(tenantId, cursor, size)));
     }
 
     // ─── GET BY ID - /api/invoice/invoices/1 ─────────────────────
@@ -43,18 +92,69 @@ public class InvoiceController {
 
     // ─── SEARCH BY CLIENT NAME - /api/invoice/invoices/search?clientName=Ben
     @GetMapping("/invoices/search")
-    public ResponseEntity<List<Invoice>> searchByClientName(@RequestParam String clientName) {
-        List<Invoice> invoices = invoiceService.searchByClientName(clientName);
-        if (invoices.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<InvoiceView>> searchByClientName(@RequestParam String clientName,
+                                                            @RequestParam(required = false) String cursor,
+                                                            @RequestParam(required = false) Integer size,
+                                                            WebRequest request) {
+        return conditional(request, () -> toResponse(invoiceService.searchByClientName(clientName, cursor, size)));
     }
 
     // ─── FILTER BY STATUS - /api/invoice/invoices/status?status=PAID
     @GetMapping("/invoices/status")
-    public ResponseEntity<List<Invoice>> getByStatus(@RequestParam String status) {
-        List<Invoice> invoices = invoiceService.getByStatus(status);
-        if (invoices.isEmpty()) return ResponseEntity.noContent().build();
-        return ResponseEntity.ok(invoices);
+    public ResponseEntity<List<InvoiceView>> getByStatus(@RequestParam String status,
+                                                     @RequestParam(required = false) String tenantId,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) Integer size,
+                                                     WebRequest request) {
+        return conditional(request, () -> toResponse(invoiceService.getByStatus(tenantId, status, cursor, size)));
+    }
+
+    // ─── AGGREGATES - /api/invoice/invoices/aggregates?groupBy=month
+    @GetMapping("/invoices/aggregates")
+    public ResponseEntity<List<InvoiceAggregate>> getAggregates(
+            @RequestParam(required = false, defaultValue = "status") String groupBy,
+            WebRequest request) {
+        InvoiceAggregateService.GroupBy grouping = InvoiceAggregateService.GroupBy.from(groupBy);
+        return conditional(request, () -> ResponseEntity.ok(invoiceAggregateService.aggregate(grouping)));
+    }
+
+    // ─── AGING - /api/invoice/invoices/aging?asOf=2026-01-31 ─────
+    // Balance âgée des impayés par client ; pas d'ETag : le résultat dépend aussi de la date
+    @GetMapping("/invoices/aging")
+    public ResponseEntity<List<InvoiceAging>> getAging(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOf) {
+        return ResponseEntity.ok(invoiceAgingService.aging(tenantId, asOf));
+    }
+
+    // ─── SUMMARY - /api/invoice/invoices/summary ─────────────────
+    // Lecture du modèle invoice_tenant_owner_summary (une ligne par statut)
+    @GetMapping("/invoices/summary")
+    public ResponseEntity<List<InvoiceStatusSummary>> getSummary(@RequestParam(required = false) String tenantId,
+                                                                 WebRequest request) {
+        return conditional(request, () -> ResponseEntity.ok(invoiceSummaryService.getSummary(tenantId)));
+    }
+
+    // ─── NUMBER GAPS - /api/invoice/invoices/numbers/gaps?year=2026
+    // Numéros réservés sans facture : blocs rendus entamés, instances arrêtées brutalement, annulations
+    @GetMapping("/invoices/numbers/gaps")
+    public ResponseEntity<List<InvoiceNumberGap>> getNumberGaps(@RequestParam(required = false) String tenantId,
+                                                                @RequestParam(required = false) Integer year) {
+        return ResponseEntity.ok(invoiceService.findNumberGaps(tenantId, year));
+    }
+
+    // ─── EXPORT - /api/invoice/invoices/export?format=csv ─────────
+    @GetMapping("/invoices/export")
+    public ResponseEntity<StreamingResponseBody> exportInvoices(
+            @RequestParam(required = false, defaultValue = "ndjson") String format) {
+        InvoiceExportService.Format exportFormat = InvoiceExportService.Format.from(format);
+        InvoiceExportService.Scope scope = invoiceExportService.currentScope();
+        StreamingResponseBody body = out -> invoiceExportService.export(scope, exportFormat, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"invoices." + exportFormat.getExtension() + "\"")
+                .body(body);
     }
 
     // ─── POST - Créer une facture ─────────────────────────────────
@@ -63,6 +163,22 @@ public class InvoiceController {
         return new ResponseEntity<>(invoiceService.createInvoice(invoiceDTO), HttpStatus.CREATED);
     }
 
+    // ─── POST - Créer des factures en lot ─────────────────────────
+    @PostMapping(value = "/invoices/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BatchItemResult>> createInvoices(@RequestBody List<InvoiceDTO> invoiceDTOs) {
+        List<BatchItemResult> results = invoiceService.createInvoices(invoiceDTOs);
+        boolean allCreated = results.stream().allMatch(r -> BatchItemResult.CREATED.equals(r.getStatus()));
+        return new ResponseEntity<>(results, allCreated ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS);
+    }
+
+    // ─── POST - Changer le statut de factures en lot ──────────────
+    @PostMapping(value = "/invoices/status-transitions", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BatchItemResult>> transitionStatus(@RequestBody InvoiceStatusTransition transition) {
+        List<BatchItemResult> results = invoiceStatusTransitionService.transition(transition);
+        boolean allUpdated = results.stream().allMatch(r -> BatchItemResult.UPDATED.equals(r.getStatus()));
+        return new ResponseEntity<>(results, allUpdated ? HttpStatus.OK : HttpStatus.MULTI_STATUS);
+    }
+
     // ─── PUT - Modifier une facture ───────────────────────────────
     @PutMapping("/invoices/{id}")
     public ResponseEntity<Invoice> updateInvoice(@PathVariable Long id,
@@ -72,9 +188,73 @@ public class InvoiceController {
         return ResponseEntity.ok(updated);
     }
 
+    // ─── PATCH - Modification partielle (version obligatoire) ─────
+    @PatchMapping(value = "/invoices/{id}", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Invoice> patchInvoice(@PathVariable Long id,
+                                                 @RequestBody InvoicePatch patch) {
+        Invoice patched = invoiceService.patchInvoice(id, patch);
+        if (patched == null) return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(patched);
+    }
+
     // ─── DELETE - Supprimer une facture ───────────────────────────
     @DeleteMapping("/invoices/{id}")
     public ResponseEntity<String> deleteInvoice(@PathVariable Long id) {
         return new ResponseEntity<>(invoiceService.deleteInvoice(id), HttpStatus.OK);
     }
+
+    // ─── RECURRING - Modèles de factures récurrentes ──────────────
+    // /api/invoice/invoices/recurring?cursor=...&size=50 ; tenantId comme pour GET /invoices
+    @GetMapping("/invoices/recurring")
+    public ResponseEntity<List<RecurringInvoiceSchedule>> getRecurringSchedules(
+            @RequestParam(required = false) String tenantId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        RecurringSchedulePage page = recurringInvoiceService.getSchedules(tenantId, cursor, size);
+        if (page.isEmpty()) return ResponseEntity.noContent().build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    @PostMapping(value = "/invoices/recurring", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<RecurringInvoiceSchedule> createRecurringSchedule(@RequestBody RecurringInvoiceRequest request) {
+        return new ResponseEntity<>(recurringInvoiceService.createSchedule(request), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/invoices/recurring/{id}")
+    public ResponseEntity<RecurringInvoiceSchedule> deactivateRecurringSchedule(@PathVariable Long id) {
+        return recurringInvoiceService.deactivateSchedule(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    // Lecture conditionnelle : si le If-None-Match correspond à la version courante du
+    // propriétaire, 304 sans lire les factures ni sérialiser la réponse
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<ResponseEntity<T>> read) {
+        return invoiceVersionService.readWithETag(etag -> {
+            if (etag == null) return read.get();
+            if (request.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache()).<T>build();
+            }
+            ResponseEntity<T> response = read.get();
+            return ResponseEntity.status(response.getStatusCode())
+                    .headers(response.getHeaders())
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache())
+                    .body(response.getBody());
+        });
+    }
+
+    // La page suivante est indiquée par l'en-tête X-Next-Cursor (absent sur la dernière page)
+    private ResponseEntity<List<InvoiceView>> toResponse(InvoicePage page) {
+        if (page.isEmpty()) return ResponseEntity.noContent().build();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
 }
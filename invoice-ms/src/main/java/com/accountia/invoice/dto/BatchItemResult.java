@@ -0,0 +1,44 @@
+package com.accountia.invoice.dto;
+
+/**
+ * Résultat d'un élément d'une opération en lot, dans l'ordre de la requête.
+ */
+public class BatchItemResult {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String REJECTED = "REJECTED";
+
+    private final int index;
+    private final String status;
+    private final Long id;
+    private final String error;
+
+    private BatchItemResult(int index, String status, Long id, String error) {
+        this.index = index;
+        this.status = status;
+        this.id = id;
+        this.error = error;
+    }
+
+    public static BatchItemResult created(int index, Long id) {
+        return new BatchItemResult(index, CREATED, id, null);
+    }
+
+    public static BatchItemResult rejected(int index, String error) {
+        return new BatchItemResult(index, REJECTED, null, error);
+    }
+
+    public static BatchItemResult updated(int index, Long id) {
+        return new BatchItemResult(index, UPDATED, id, null);
+    }
+
+    public static BatchItemResult rejected(int index, Long id, String error) {
+        return new BatchItemResult(index, REJECTED, id, error);
+    }
+
+    public int getIndex() { return index; }
+    public String getStatus() { return status; }
+    public Long getId() { return id; }
+    public String getError() { return error; }
+}
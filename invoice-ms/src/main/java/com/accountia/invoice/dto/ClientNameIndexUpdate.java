@@ -0,0 +1,22 @@
+package com.accountia.invoice.dto;
+
+import java.util.List;
+
+/**
+ * Changements de l'index des noms de client faits par une transaction, diffusés aux autres
+ * instances d'invoice-ms. {@code origin} identifie l'instance émettrice, qui ignore ses propres messages.
+ */
+public record ClientNameIndexUpdate(String origin, List<Entry> upserts, List<Long> removedIds) {
+
+    public ClientNameIndexUpdate {
+        upserts = upserts == null ? List.of() : upserts;
+        removedIds = removedIds == null ? List.of() : removedIds;
+    }
+
+    public ClientNameIndexUpdate withOrigin(String origin) {
+        return new ClientNameIndexUpdate(origin, upserts, removedIds);
+    }
+
+    public record Entry(Long id, String tenantId, String ownerSubject, String clientName) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.accountia.invoice.dto;
+
+/**
+ * Agrégat de factures pour une valeur de regroupement (statut, mois ou client).
+ * Construit directement par les requêtes GROUP BY, sans charger les entités.
+ */
+public class InvoiceAggregate {
+
+    private final String key;
+    private final long count;
+    private final double total;
+    private final double average;
+
+    public InvoiceAggregate(String key, Long count, Double total, Double average) {
+        this.key = key;
+        this.count = count == null ? 0 : count;
+        this.total = total == null ? 0 : total;
+        this.average = average == null ? 0 : average;
+    }
+
+    public String getKey() { return key; }
+    public long getCount() { return count; }
+    public double getTotal() { return total; }
+    public double getAverage() { return average; }
+}
@@ -0,0 +1,17 @@
+package com.accountia.invoice.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Balance âgée des factures impayées d'un client : montants par ancienneté après l'échéance
+ * (non échu, 1-30, 31-60, 61-90 et plus de 90 jours).
+ */
+public record InvoiceAging(String clientName,
+                           long invoiceCount,
+                           BigDecimal current,
+                           BigDecimal days1To30,
+                           BigDecimal days31To60,
+                           BigDecimal days61To90,
+                           BigDecimal over90,
+                           BigDecimal total) {
+}
@@ -0,0 +1,10 @@
+package com.accountia.invoice.dto;
+
+import java.util.List;
+
+/**
+ * Message diffusé aux autres instances d'invoice-ms pour retirer des factures de leur cache.
+ * {@code origin} identifie l'instance émettrice, qui ignore ses propres messages.
+ */
+public record InvoiceCacheInvalidation(String origin, List<Long> invoiceIds) {
+}
@@ -15,4 +15,6 @@ public class InvoiceDTO {
     private LocalDate dueDate;
     private String status;
     private String ownerSubject;
+    // @Version de la facture après l'écriture : les consommateurs ignorent les événements plus anciens
+    private Long version;
 }
@@ -1,6 +1,7 @@
 package com.accountia.invoice.dto;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Event envelope for invoice messages sent to RabbitMQ.
@@ -13,6 +14,12 @@ public class InvoiceEventEnvelope implements Serializable {
     private String eventType;
     private String invoiceId;
     private InvoiceDTO invoice;
+    // Événements groupés (ex. passage en retard) : ids concernés, invoice reste null
+    private List<Long> invoiceIds;
+    // Version de chaque facture de invoiceIds après la mise à jour groupée (même ordre)
+    private List<Long> invoiceVersions;
+    // Changement de statut groupé : statut cible commun aux invoiceIds
+    private String status;
 
     public InvoiceEventEnvelope() {
     }
@@ -35,6 +42,21 @@ public class InvoiceEventEnvelope implements Serializable {
         return new InvoiceEventEnvelope("DELETED", String.valueOf(invoiceId), null);
     }
 
+    public static InvoiceEventEnvelope overdue(List<Long> invoiceIds, List<Long> invoiceVersions) {
+        InvoiceEventEnvelope envelope = new InvoiceEventEnvelope("OVERDUE", String.valueOf(invoiceIds.get(0)), null);
+        envelope.setInvoiceIds(invoiceIds);
+        envelope.setInvoiceVersions(invoiceVersions);
+        return envelope;
+    }
+
+    public static InvoiceEventEnvelope statusChanged(List<Long> invoiceIds, List<Long> invoiceVersions, String status) {
+        InvoiceEventEnvelope envelope = new InvoiceEventEnvelope("STATUS_CHANGED", String.valueOf(invoiceIds.get(0)), null);
+        envelope.setInvoiceIds(invoiceIds);
+        envelope.setInvoiceVersions(invoiceVersions);
+        envelope.setStatus(status);
+        return envelope;
+    }
+
     public String getEventType() {
         return eventType;
     }
@@ -59,12 +81,39 @@ public class InvoiceEventEnvelope implements Serializable {
         this.invoice = invoice;
     }
 
+    public List<Long> getInvoiceIds() {
+        return invoiceIds;
+    }
+
+    public void setInvoiceIds(List<Long> invoiceIds) {
+        this.invoiceIds = invoiceIds;
+    }
+
+    public List<Long> getInvoiceVersions() {
+        return invoiceVersions;
+    }
+
+    public void setInvoiceVersions(List<Long> invoiceVersions) {
+        this.invoiceVersions = invoiceVersions;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
     @Override
     public String toString() {
         return "InvoiceEventEnvelope{" +
                 "eventType='" + eventType + '\'' +
                 ", invoiceId='" + invoiceId + '\'' +
                 ", invoice=" + invoice +
+                ", invoiceIds=" + invoiceIds +
+                ", invoiceVersions=" + invoiceVersions +
+                ", status='" + status + '\'' +
                 '}';
     }
 }
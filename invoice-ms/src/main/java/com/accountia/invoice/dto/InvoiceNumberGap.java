@@ -0,0 +1,15 @@
+package com.accountia.invoice.dto;
+
+/**
+ * Plage de numéros de facture sans facture, avec le bloc et l'instance qui l'avaient réservée.
+ *
+ * reason : NOT_ISSUED (reste d'un bloc rendu à l'arrêt de l'instance), OPEN_BLOCK (bloc jamais
+ * rendu : instance en cours ou arrêtée brutalement), MISSING (numéro distribué puis perdu :
+ * transaction annulée ou facture supprimée).
+ */
+public record InvoiceNumberGap(long fromNumber,
+                               long toNumber,
+                               long blockId,
+                               String instanceId,
+                               String reason) {
+}
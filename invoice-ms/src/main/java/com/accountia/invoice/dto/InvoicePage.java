@@ -0,0 +1,34 @@
+package com.accountia.invoice.dto;
+
+import java.util.List;
+
+/**
+ * Une page d'une liste de factures paginée par keyset.
+ * {@code nextCursor} vaut null quand il n'y a plus de page suivante.
+ */
+public class InvoicePage {
+
+    private final List<InvoiceView> items;
+    private final String nextCursor;
+
+    public InvoicePage(List<InvoiceView> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public static InvoicePage empty() {
+        return new InvoicePage(List.of(), null);
+    }
+
+    public List<InvoiceView> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,19 @@
+package com.accountia.invoice.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Corps d'un PATCH de facture : seuls les champs non nuls sont modifiés.
+ * {@code version} est la version lue par le client ; la modification échoue si elle a changé.
+ */
+@Data
+public class InvoicePatch {
+    private String clientName;
+    private Double amount;
+    private String description;
+    private LocalDate dueDate;
+    private String status;
+    private Long version;
+}
@@ -0,0 +1,24 @@
+package com.accountia.invoice.dto;
+
+/**
+ * Totaux d'un statut, lus dans le modèle {@code invoice_tenant_owner_summary}.
+ */
+public class InvoiceStatusSummary {
+
+    private final String status;
+    private final long count;
+    private final double totalAmount;
+    private final long overdueCount;
+
+    public InvoiceStatusSummary(String status, Long count, Double totalAmount, Long overdueCount) {
+        this.status = status;
+        this.count = count == null ? 0 : count;
+        this.totalAmount = totalAmount == null ? 0 : totalAmount;
+        this.overdueCount = overdueCount == null ? 0 : overdueCount;
+    }
+
+    public String getStatus() { return status; }
+    public long getCount() { return count; }
+    public double getTotalAmount() { return totalAmount; }
+    public long getOverdueCount() { return overdueCount; }
+}
@@ -0,0 +1,14 @@
+package com.accountia.invoice.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Corps de POST /invoices/status-transitions : passe les factures {@code ids} au statut {@code status}.
+ */
+@Data
+public class InvoiceStatusTransition {
+    private List<Long> ids;
+    private String status;
+}
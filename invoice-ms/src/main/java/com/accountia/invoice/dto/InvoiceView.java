@@ -0,0 +1,21 @@
+package com.accountia.invoice.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Projection d'une facture pour les listes : construite directement par la requête
+ * ({@code select new}), sans entité gérée ni copie pour le dirty checking.
+ * Même forme JSON que l'entité {@code Invoice}.
+ */
+public record InvoiceView(Long id,
+                          String tenantId,
+                          String invoiceNumber,
+                          String clientName,
+                          Double amount,
+                          String description,
+                          LocalDate issueDate,
+                          LocalDate dueDate,
+                          String status,
+                          String ownerSubject,
+                          Long version) {
+}
@@ -0,0 +1,21 @@
+package com.accountia.invoice.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Corps de POST /invoices/recurring : une facture tous les {@code intervalMonths} mois à partir
+ * de {@code startDate}, payable sous {@code paymentTermsDays} jours.
+ */
+@Data
+public class RecurringInvoiceRequest {
+    private String tenantId;
+    private String clientName;
+    private Double amount;
+    private String description;
+    private String status;
+    private LocalDate startDate;
+    private Integer intervalMonths;
+    private Integer paymentTermsDays;
+}
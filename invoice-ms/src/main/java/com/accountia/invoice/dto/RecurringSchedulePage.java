@@ -0,0 +1,36 @@
+package com.accountia.invoice.dto;
+
+import com.accountia.invoice.model.RecurringInvoiceSchedule;
+
+import java.util.List;
+
+/**
+ * Une page de la liste des modèles récurrents, paginée par keyset comme {@link InvoicePage}.
+ * {@code nextCursor} vaut null quand il n'y a plus de page suivante.
+ */
+public class RecurringSchedulePage {
+
+    private final List<RecurringInvoiceSchedule> items;
+    private final String nextCursor;
+
+    public RecurringSchedulePage(List<RecurringInvoiceSchedule> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public static RecurringSchedulePage empty() {
+        return new RecurringSchedulePage(List.of(), null);
+    }
+
+    public List<RecurringInvoiceSchedule> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isEmpty() {
+        return items.isEmpty();
+    }
+}
@@ -0,0 +1,48 @@
+package com.accountia.invoice.messaging;
+
+import com.accountia.invoice.config.RabbitMQConfig;
+import com.accountia.invoice.dto.ClientNameIndexUpdate;
+import com.accountia.invoice.search.ClientNameIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Diffuse les changements de l'index des noms de client aux autres instances d'invoice-ms
+ * (exchange fanout, une file anonyme par instance) et applique ceux qu'elles envoient.
+ */
+@Component
+@Profile("!ci")
+public class ClientNameIndexBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientNameIndexBroadcaster.class);
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final RabbitPublisher rabbitPublisher;
+    private final ClientNameIndex clientNameIndex;
+
+    public ClientNameIndexBroadcaster(RabbitPublisher rabbitPublisher, ClientNameIndex clientNameIndex) {
+        this.rabbitPublisher = rabbitPublisher;
+        this.clientNameIndex = clientNameIndex;
+    }
+
+    // Appelé après commit : un échec ne remet pas en cause l'écriture, la reconstruction périodique rattrape
+    public void broadcast(ClientNameIndexUpdate update) {
+        try {
+            rabbitPublisher.send(RabbitMQConfig.INVOICE_SEARCH_EXCHANGE, "", update.withOrigin(instanceId));
+        } catch (RuntimeException e) {
+            log.warn("Changements de l'index non diffusés ({} factures) : {}",
+                    update.upserts().size() + update.removedIds().size(), e.getMessage());
+        }
+    }
+
+    @RabbitListener(queues = "#{invoiceSearchQueue.name}")
+    public void onUpdate(ClientNameIndexUpdate message) {
+        if (instanceId.equals(message.origin())) return;
+        clientNameIndex.applyRemote(message);
+    }
+}
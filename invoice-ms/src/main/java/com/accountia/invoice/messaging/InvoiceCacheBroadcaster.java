@@ -0,0 +1,49 @@
+package com.accountia.invoice.messaging;
+
+import com.accountia.invoice.cache.InvoiceCache;
+import com.accountia.invoice.config.RabbitMQConfig;
+import com.accountia.invoice.dto.InvoiceCacheInvalidation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Diffuse les invalidations du cache des factures aux autres instances d'invoice-ms
+ * (exchange fanout, une file anonyme par instance) et applique celles qu'elles envoient.
+ */
+@Component
+@Profile("!ci")
+public class InvoiceCacheBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceCacheBroadcaster.class);
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private final RabbitPublisher rabbitPublisher;
+    private final InvoiceCache invoiceCache;
+
+    public InvoiceCacheBroadcaster(RabbitPublisher rabbitPublisher, InvoiceCache invoiceCache) {
+        this.rabbitPublisher = rabbitPublisher;
+        this.invoiceCache = invoiceCache;
+    }
+
+    // Appelé après commit : un échec ne remet pas en cause l'écriture, la durée de vie du cache prend le relais
+    public void broadcast(List<Long> invoiceIds) {
+        try {
+            rabbitPublisher.send(RabbitMQConfig.INVOICE_CACHE_EXCHANGE, "",
+                    new InvoiceCacheInvalidation(instanceId, invoiceIds));
+        } catch (RuntimeException e) {
+            log.warn("Invalidation du cache non diffusée pour {} factures : {}", invoiceIds.size(), e.getMessage());
+        }
+    }
+
+    @RabbitListener(queues = "#{invoiceCacheQueue.name}")
+    public void onInvalidation(InvoiceCacheInvalidation message) {
+        if (instanceId.equals(message.origin()) || message.invoiceIds() == null) return;
+        invoiceCache.evictRemote(message.invoiceIds());
+    }
+}
@@ -5,9 +5,11 @@ import com.accountia.invoice.dto.InvoiceDTO;
 import com.accountia.invoice.dto.InvoiceEventEnvelope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Message producer for publishing invoice events to RabbitMQ.
  */
@@ -16,10 +18,10 @@ public class InvoiceMessageProducer {
 
     private static final Logger log = LoggerFactory.getLogger(InvoiceMessageProducer.class);
 
-    private final RabbitTemplate rabbitTemplate;
+    private final RabbitPublisher rabbitPublisher;
 
-    public InvoiceMessageProducer(RabbitTemplate rabbitTemplate) {
-        this.rabbitTemplate = rabbitTemplate;
+    public InvoiceMessageProducer(RabbitPublisher rabbitPublisher) {
+        this.rabbitPublisher = rabbitPublisher;
     }
 
     /**
@@ -28,7 +30,7 @@ public class InvoiceMessageProducer {
     public void publishInvoiceCreated(InvoiceDTO invoice) {
         log.info("Publishing invoice created event for invoice ID: {}", invoice.getId());
         InvoiceEventEnvelope envelope = InvoiceEventEnvelope.created(invoice);
-        rabbitTemplate.convertAndSend(
+        rabbitPublisher.send(
                 RabbitMQConfig.ACCOUNTIA_EXCHANGE,
                 RabbitMQConfig.INVOICE_CREATED_ROUTING_KEY,
                 envelope
@@ -41,7 +43,7 @@ public class InvoiceMessageProducer {
     public void publishInvoiceUpdated(InvoiceDTO invoice) {
         log.info("Publishing invoice updated event for invoice ID: {}", invoice.getId());
         InvoiceEventEnvelope envelope = InvoiceEventEnvelope.updated(invoice);
-        rabbitTemplate.convertAndSend(
+        rabbitPublisher.send(
                 RabbitMQConfig.ACCOUNTIA_EXCHANGE,
                 RabbitMQConfig.INVOICE_UPDATED_ROUTING_KEY,
                 envelope
@@ -54,10 +56,19 @@ public class InvoiceMessageProducer {
     public void publishInvoiceDeleted(Long invoiceId) {
         log.info("Publishing invoice deleted event for invoice ID: {}", invoiceId);
         InvoiceEventEnvelope envelope = InvoiceEventEnvelope.deleted(invoiceId);
-        rabbitTemplate.convertAndSend(
+        rabbitPublisher.send(
                 RabbitMQConfig.ACCOUNTIA_EXCHANGE,
                 RabbitMQConfig.INVOICE_DELETED_ROUTING_KEY,
                 envelope
         );
     }
+
+    /**
+     * Publish an already-built envelope and return the broker's publisher confirm,
+     * without blocking on it (used by the outbox relay).
+     */
+    public CompletableFuture<CorrelationData.Confirm> publish(String routingKey, InvoiceEventEnvelope envelope) {
+        log.debug("Publishing invoice {} event for invoice ID: {}", envelope.getEventType(), envelope.getInvoiceId());
+        return rabbitPublisher.publish(RabbitMQConfig.ACCOUNTIA_EXCHANGE, routingKey, envelope);
+    }
 }
@@ -0,0 +1,100 @@
+package com.accountia.invoice.messaging;
+
+import com.accountia.invoice.config.RabbitMQConfig;
+import com.accountia.invoice.dto.InvoiceDTO;
+import com.accountia.invoice.dto.InvoiceEventEnvelope;
+import com.accountia.invoice.model.Invoice;
+import com.accountia.invoice.model.InvoiceOutboxEvent;
+import com.accountia.invoice.repository.InvoiceOutboxRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Enregistre les événements facture dans la table outbox.
+ * Doit être appelé dans la transaction qui modifie la facture : l'événement
+ * n'existe que si l'écriture est validée, et la requête HTTP n'attend jamais RabbitMQ.
+ */
+@Component
+public class InvoiceOutbox {
+
+    private final InvoiceOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    public InvoiceOutbox(InvoiceOutboxRepository outboxRepository, ObjectMapper objectMapper) {
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invoiceCreated(Invoice invoice) {
+        enqueue(invoice.getId(), InvoiceEventEnvelope.created(toDto(invoice)),
+                RabbitMQConfig.INVOICE_CREATED_ROUTING_KEY);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invoiceUpdated(Invoice invoice) {
+        enqueue(invoice.getId(), InvoiceEventEnvelope.updated(toDto(invoice)),
+                RabbitMQConfig.INVOICE_UPDATED_ROUTING_KEY);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invoiceDeleted(Long invoiceId) {
+        enqueue(invoiceId, InvoiceEventEnvelope.deleted(invoiceId), RabbitMQConfig.INVOICE_DELETED_ROUTING_KEY);
+    }
+
+    // Un seul événement pour un lot de factures passées en retard ; invoiceVersions[i] est la
+    // version de invoiceIds[i] après la mise à jour
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invoicesOverdue(List<Long> invoiceIds, List<Long> invoiceVersions) {
+        if (invoiceIds.isEmpty()) return;
+        enqueue(invoiceIds.get(0), InvoiceEventEnvelope.overdue(invoiceIds, invoiceVersions),
+                RabbitMQConfig.INVOICE_OVERDUE_ROUTING_KEY);
+    }
+
+    // Un seul événement par tranche d'une transition de statut en lot
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invoicesStatusChanged(List<Long> invoiceIds, List<Long> invoiceVersions, String status) {
+        if (invoiceIds.isEmpty()) return;
+        enqueue(invoiceIds.get(0), InvoiceEventEnvelope.statusChanged(invoiceIds, invoiceVersions, status),
+                RabbitMQConfig.INVOICE_STATUS_CHANGED_ROUTING_KEY);
+    }
+
+    private void enqueue(Long invoiceId, InvoiceEventEnvelope envelope, String routingKey) {
+        InvoiceOutboxEvent event = new InvoiceOutboxEvent();
+        event.setAggregateId(invoiceId);
+        event.setEventType(envelope.getEventType());
+        event.setRoutingKey(routingKey);
+        event.setPayload(toJson(envelope));
+        event.setCreatedAt(Instant.now());
+        outboxRepository.save(event);
+    }
+
+    private String toJson(InvoiceEventEnvelope envelope) {
+        try {
+            return objectMapper.writeValueAsString(envelope);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Impossible de sérialiser l'événement facture " + envelope.getInvoiceId(), e);
+        }
+    }
+
+    private static InvoiceDTO toDto(Invoice invoice) {
+        InvoiceDTO dto = new InvoiceDTO();
+        dto.setId(invoice.getId());
+        dto.setTenantId(invoice.getTenantId());
+        dto.setClientName(invoice.getClientName());
+        dto.setAmount(invoice.getAmount());
+        dto.setDescription(invoice.getDescription());
+        dto.setIssueDate(invoice.getIssueDate());
+        dto.setDueDate(invoice.getDueDate());
+        dto.setStatus(invoice.getStatus());
+        dto.setOwnerSubject(invoice.getOwnerSubject());
+        dto.setVersion(invoice.getVersion());
+        return dto;
+    }
+}
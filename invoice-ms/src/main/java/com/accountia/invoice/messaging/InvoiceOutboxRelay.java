@@ -0,0 +1,194 @@
+package com.accountia.invoice.messaging;
+
+import com.accountia.invoice.dto.InvoiceEventEnvelope;
+import com.accountia.invoice.model.InvoiceOutboxEvent;
+import com.accountia.invoice.repository.InvoiceOutboxRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Relaie la table outbox vers RabbitMQ par lots.
+ *
+ * Chaque passe réserve un lot d'événements non envoyés (SKIP LOCKED, plusieurs réplicas
+ * peuvent tourner en parallèle), les publie tous, puis attend les publisher confirms.
+ * Seuls les événements confirmés par le broker sont marqués envoyés ; les autres
+ * seront repris à la passe suivante (livraison au moins une fois).
+ *
+ * Une passe dont aucun événement n'est confirmé (broker indisponible) suspend le relais
+ * avec un délai croissant, sans compter d'échec contre les événements. Un événement qui échoue
+ * alors que d'autres passent est compté ; au-delà de {@code invoice.outbox.max-attempts}, ou si sa
+ * charge est illisible, il est abandonné (failed_at) pour ne plus bloquer la tête de la table.
+ */
+@Component
+@Profile("!ci")
+public class InvoiceOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceOutboxRelay.class);
+
+    private final InvoiceOutboxRepository outboxRepository;
+    private final InvoiceMessageProducer messageProducer;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+    private final Duration retention;
+    private final int maxAttempts;
+    private final long pollIntervalMs;
+    private final long maxBackoffMs;
+
+    // Passes consécutives sans aucun envoi, et fin de la suspension qui en découle (nanoTime)
+    private int failedPasses;
+    private long pausedUntil;
+
+    public InvoiceOutboxRelay(InvoiceOutboxRepository outboxRepository,
+                              InvoiceMessageProducer messageProducer,
+                              ObjectMapper objectMapper,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${invoice.outbox.batch-size:200}") int batchSize,
+                              @Value("${invoice.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                              @Value("${invoice.outbox.retention-hours:72}") long retentionHours,
+                              @Value("${invoice.outbox.max-attempts:10}") int maxAttempts,
+                              @Value("${invoice.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+                              @Value("${invoice.outbox.max-backoff-ms:60000}") long maxBackoffMs) {
+        this.outboxRepository = outboxRepository;
+        this.messageProducer = messageProducer;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.retention = Duration.ofHours(retentionHours);
+        this.maxAttempts = maxAttempts;
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    @Scheduled(fixedDelayString = "${invoice.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        if (failedPasses > 0 && System.nanoTime() - pausedUntil < 0) return;
+        // On enchaîne les lots tant qu'ils partent en entier pour vider rapidement un arriéré
+        BatchResult result;
+        do {
+            result = transactionTemplate.execute(status -> relayBatch());
+            if (result.sent() == 0 && result.retried() > 0) {
+                backOff();
+                return;
+            }
+            failedPasses = 0;
+        } while (result.sent() == batchSize);
+    }
+
+    private void backOff() {
+        failedPasses++;
+        long delayMs = Math.min(maxBackoffMs, pollIntervalMs << Math.min(failedPasses, 16));
+        pausedUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs);
+        log.warn("Outbox : aucun événement confirmé ({} passes de suite), relais suspendu {} ms", failedPasses, delayMs);
+    }
+
+    @Scheduled(cron = "${invoice.outbox.purge-cron:0 15 * * * *}")
+    public void purgeSent() {
+        Instant before = Instant.now().minus(retention);
+        Integer deleted = transactionTemplate.execute(status -> outboxRepository.deleteSentBefore(before));
+        if (deleted != null && deleted > 0) {
+            log.info("Outbox : {} événements envoyés purgés", deleted);
+        }
+    }
+
+    private BatchResult relayBatch() {
+        List<InvoiceOutboxEvent> events = outboxRepository.findBySentAtIsNullAndFailedAtIsNullOrderByIdAsc(Limit.of(batchSize));
+        if (events.isEmpty()) return new BatchResult(0, 0);
+
+        Instant now = Instant.now();
+        List<CompletableFuture<CorrelationData.Confirm>> confirms = new ArrayList<>(events.size());
+        for (InvoiceOutboxEvent event : events) {
+            InvoiceEventEnvelope envelope;
+            try {
+                envelope = objectMapper.readValue(event.getPayload(), InvoiceEventEnvelope.class);
+            } catch (Exception e) {
+                // Réessayer ne changerait rien
+                log.error("Outbox : événement {} illisible, abandonné : {}", event.getId(), e.getMessage());
+                event.setFailedAt(now);
+                confirms.add(null);
+                continue;
+            }
+            try {
+                confirms.add(messageProducer.publish(event.getRoutingKey(), envelope));
+            } catch (Exception e) {
+                log.warn("Outbox : échec de publication de l'événement {} : {}", event.getId(), e.getMessage());
+                confirms.add(null);
+            }
+        }
+
+        // Les confirms arrivent de façon asynchrone : on attend le lot entier sous un délai global
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        List<InvoiceOutboxEvent> failed = new ArrayList<>();
+        int sent = 0;
+        for (int i = 0; i < events.size(); i++) {
+            InvoiceOutboxEvent event = events.get(i);
+            if (event.getFailedAt() != null) continue;
+            if (isConfirmed(event, confirms.get(i), deadline)) {
+                event.setSentAt(now);
+                sent++;
+            } else {
+                failed.add(event);
+            }
+        }
+        // Rien n'est passé : panne du broker plutôt que de ces événements, on ne les pénalise pas
+        if (sent > 0) {
+            for (InvoiceOutboxEvent event : failed) {
+                event.setAttempts(event.getAttempts() + 1);
+                if (event.getAttempts() >= maxAttempts) {
+                    log.error("Outbox : événement {} abandonné après {} tentatives", event.getId(), event.getAttempts());
+                    event.setFailedAt(now);
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            log.warn("Outbox : {}/{} événements confirmés, les autres seront réessayés", sent, events.size());
+        }
+        return new BatchResult(sent, failed.size());
+    }
+
+    // Événements confirmés, et événements laissés pour une passe suivante
+    private record BatchResult(int sent, int retried) {
+    }
+
+    private boolean isConfirmed(InvoiceOutboxEvent event, CompletableFuture<CorrelationData.Confirm> future,
+                                long deadline) {
+        if (future == null) return false;
+        try {
+            long remaining = Math.max(0, deadline - System.nanoTime());
+            CorrelationData.Confirm confirm = future.get(remaining, TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                log.warn("Outbox : événement {} refusé par le broker : {}", event.getId(), confirm.getReason());
+                return false;
+            }
+            // Un message non routé est tout de même confirmé : réessayer ne changerait rien
+            return true;
+        } catch (TimeoutException e) {
+            log.warn("Outbox : pas de confirm pour l'événement {} dans le délai", event.getId());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("Outbox : confirm en erreur pour l'événement {} : {}", event.getId(), e.getMessage());
+            return false;
+        }
+    }
+}
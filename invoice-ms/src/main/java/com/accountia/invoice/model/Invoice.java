@@ -2,21 +2,56 @@ package com.accountia.invoice.model;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Filter;
+import org.hibernate.annotations.FilterDef;
+import org.hibernate.annotations.ParamDef;
 
 import java.time.LocalDate;
 
+// Index menés par tenant_id : avec PARTITION BY KEY(tenant_id) (InvoicePartitioningInitializer),
+// une requête d'un tenant ne lit que sa partition et sa portion d'index
 @Entity
-@Table(name = "invoices")
+// La contrainte unique inclut tenant_id, colonne de partitionnement : compatible avec PARTITION BY KEY
+@Table(name = "invoices", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_invoices_tenant_number", columnNames = {"tenant_id", "invoice_number"})
+}, indexes = {
+        @Index(name = "idx_invoices_owner_id", columnList = "owner_subject, id"),
+        @Index(name = "idx_invoices_status_id", columnList = "status, id"),
+        @Index(name = "idx_invoices_owner_status_id", columnList = "owner_subject, status, id"),
+        @Index(name = "idx_invoices_status_due_date", columnList = "status, due_date"),
+        @Index(name = "idx_invoices_tenant_id", columnList = "tenant_id, id"),
+        @Index(name = "idx_invoices_tenant_owner_id", columnList = "tenant_id, owner_subject, id"),
+        @Index(name = "idx_invoices_tenant_status_id", columnList = "tenant_id, status, id")
+})
+// Activé à chaque transaction par TenantFilterJpaTransactionManager quand le jeton porte un tenant
+@FilterDef(name = Invoice.TENANT_FILTER, parameters = @ParamDef(name = Invoice.TENANT_PARAM, type = String.class))
+@Filter(name = Invoice.TENANT_FILTER, condition = "tenant_id = :" + Invoice.TENANT_PARAM)
 @Data
 public class Invoice {
 
+    public static final String TENANT_FILTER = "invoiceTenantFilter";
+    public static final String TENANT_PARAM = "tenantId";
+
+    public static final String ID_GENERATOR_TABLE = "id_generators";
+    public static final String ID_GENERATOR_KEY = "invoices";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    // Générateur "pooled" par table : les ids sont réservés par blocs,
+    // ce qui permet à Hibernate de regrouper les INSERT en lots JDBC (impossible avec IDENTITY)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "invoice_id")
+    @TableGenerator(name = "invoice_id", table = ID_GENERATOR_TABLE,
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = ID_GENERATOR_KEY, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
-    @Column(nullable = false)
+    @Column(name = "tenant_id", nullable = false)
     private String tenantId;
 
+    // Numéro lisible par tenant et par année (InvoiceNumberAllocator), attribué à la création
+    @Column(name = "invoice_number", length = 32, updatable = false)
+    private String invoiceNumber;
+
     @Column(nullable = false)
     private String clientName;
 
@@ -32,8 +67,30 @@ public class Invoice {
     private LocalDate dueDate;
 
     @Column(nullable = false)
-    private String status; // DRAFT, SENT, PAID, CANCELLED
+    private String status; // DRAFT, SENT, OVERDUE, PAID, CANCELLED
 
     @Column(name = "owner_subject")
     private String ownerSubject;
+
+    // Verrou optimiste : toute écriture l'incrémente, y compris les UPDATE ensemblistes faits en SQL
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
+    // Copie détachée (cache, état avant modification d'un PATCH)
+    public Invoice copy() {
+        Invoice copy = new Invoice();
+        copy.setId(id);
+        copy.setTenantId(tenantId);
+        copy.setInvoiceNumber(invoiceNumber);
+        copy.setClientName(clientName);
+        copy.setAmount(amount);
+        copy.setDescription(description);
+        copy.setIssueDate(issueDate);
+        copy.setDueDate(dueDate);
+        copy.setStatus(status);
+        copy.setOwnerSubject(ownerSubject);
+        copy.setVersion(version);
+        return copy;
+    }
 }
@@ -0,0 +1,51 @@
+package com.accountia.invoice.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Registre des blocs de numéros réservés : quelle instance a reçu quelle plage, et jusqu'où
+ * elle l'a distribuée. Un bloc sans {@code releasedAt} appartient à une instance en cours
+ * d'exécution ou arrêtée brutalement ; c'est ce qui permet de rapporter les trous.
+ */
+@Entity
+@Table(name = "invoice_number_blocks", indexes = {
+        @Index(name = "idx_invoice_number_blocks_tenant_year", columnList = "tenant_id, number_year, first_number")
+})
+@Data
+public class InvoiceNumberBlock {
+
+    public static final String TABLE = "invoice_number_blocks";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "number_year", nullable = false)
+    private int numberYear;
+
+    @Column(name = "first_number", nullable = false)
+    private long firstNumber;
+
+    @Column(name = "last_number", nullable = false)
+    private long lastNumber;
+
+    @Column(name = "instance_id", nullable = false, length = 64)
+    private String instanceId;
+
+    @Column(name = "reserved_at", nullable = false)
+    private Instant reservedAt;
+
+    // Renseignés à l'arrêt propre de l'instance (ou dès la réservation pour un bloc de lot)
+    @Column(name = "released_at")
+    private Instant releasedAt;
+
+    // Premier numéro jamais distribué du bloc
+    @Column(name = "next_unused")
+    private Long nextUnused;
+}
@@ -0,0 +1,40 @@
+package com.accountia.invoice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Compteur des numéros de facture par tenant et par année : prochain numéro non réservé.
+ * Avancé d'un bloc entier à chaque réservation ({@code InvoiceNumberAllocator}), jamais par facture.
+ */
+@Entity
+@Table(name = "invoice_number_counters")
+@IdClass(InvoiceNumberCounter.Key.class)
+@Data
+public class InvoiceNumberCounter {
+
+    public static final String TABLE = "invoice_number_counters";
+
+    @Id
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Id
+    @Column(name = "number_year", nullable = false)
+    private int numberYear;
+
+    @Column(name = "next_number", nullable = false)
+    private long nextNumber;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String tenantId;
+        private int numberYear;
+    }
+}
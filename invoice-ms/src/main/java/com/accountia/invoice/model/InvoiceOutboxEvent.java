@@ -0,0 +1,52 @@
+package com.accountia.invoice.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Événement facture en attente de publication sur RabbitMQ (pattern transactional outbox).
+ * Écrit dans la même transaction que la facture, puis relayé par {@code InvoiceOutboxRelay}.
+ */
+@Entity
+@Table(name = "invoice_outbox", indexes = {
+        @Index(name = "idx_invoice_outbox_pending", columnList = "sent_at, failed_at, id")
+})
+@Data
+public class InvoiceOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "invoice_outbox_id")
+    @TableGenerator(name = "invoice_outbox_id", table = Invoice.ID_GENERATOR_TABLE,
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = "invoice_outbox", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Column(name = "event_type", nullable = false, length = 32)
+    private String eventType; // CREATED, UPDATED, DELETED
+
+    @Column(name = "routing_key", nullable = false)
+    private String routingKey;
+
+    // InvoiceEventEnvelope sérialisé en JSON
+    @Lob
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "sent_at")
+    private Instant sentAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Abandonné par le relais (charge illisible ou trop d'échecs) : conservé pour analyse, plus jamais relu
+    @Column(name = "failed_at")
+    private Instant failedAt;
+}
@@ -0,0 +1,62 @@
+package com.accountia.invoice.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Modèle de lecture : totaux des factures par tenant, propriétaire et statut.
+ * Tenu à jour par deltas dans la transaction qui modifie la facture
+ * ({@code InvoiceSummaryService}), et reconstruit périodiquement depuis {@code invoices}.
+ *
+ * Le tenant fait partie de la clé : un administrateur de tenant ne somme que ses lignes.
+ * La table remplace {@code invoice_owner_summary} (clé sans tenant) : ddl-auto ne modifie pas
+ * une clé primaire existante ; la nouvelle table, vide, est remplie au démarrage
+ * par {@code InvoiceSummaryRebuildJob}. L'ancienne peut être supprimée.
+ */
+@Entity
+@Table(name = "invoice_tenant_owner_summary")
+@IdClass(InvoiceOwnerSummary.Key.class)
+@Data
+public class InvoiceOwnerSummary {
+
+    public static final String TABLE = "invoice_tenant_owner_summary";
+
+    @Id
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    // Chaîne vide pour les factures sans propriétaire (colonne de clé primaire)
+    @Id
+    @Column(name = "owner_subject", nullable = false)
+    private String ownerSubject;
+
+    @Id
+    @Column(nullable = false, length = 32)
+    private String status;
+
+    @Column(name = "invoice_count", nullable = false)
+    private long invoiceCount;
+
+    @Column(name = "total_amount", nullable = false)
+    private double totalAmount;
+
+    @Column(name = "overdue_count", nullable = false)
+    private long overdueCount;
+
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String tenantId;
+        private String ownerSubject;
+        private String status;
+    }
+}
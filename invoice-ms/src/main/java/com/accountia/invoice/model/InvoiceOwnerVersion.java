@@ -0,0 +1,24 @@
+package com.accountia.invoice.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Compteur de version des factures d'un propriétaire, incrémenté à chaque écriture.
+ * Sert d'ETag aux lectures de liste : tant qu'il ne bouge pas, la réponse est inchangée.
+ */
+@Entity
+@Table(name = "invoice_owner_versions")
+@Data
+public class InvoiceOwnerVersion {
+
+    public static final String TABLE = "invoice_owner_versions";
+
+    // Chaîne vide pour les factures sans propriétaire
+    @Id
+    @Column(name = "owner_subject", nullable = false)
+    private String ownerSubject;
+
+    @Column(nullable = false)
+    private long version;
+}
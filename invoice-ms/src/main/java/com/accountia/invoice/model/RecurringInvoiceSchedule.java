@@ -0,0 +1,74 @@
+package com.accountia.invoice.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+/**
+ * Modèle de facture récurrente (abonnement mensuel, forfait...).
+ *
+ * {@code nextRunDate} est la date d'émission de la prochaine facture ; elle n'avance que dans la
+ * transaction qui crée cette facture ({@code RecurringInvoiceJob}), ce qui sert de point de reprise.
+ */
+@Entity
+@Table(name = "invoice_recurring_schedules", indexes = {
+        @Index(name = "idx_recurring_due", columnList = "active, next_run_date, id"),
+        @Index(name = "idx_recurring_owner_id", columnList = "owner_subject, id"),
+        @Index(name = "idx_recurring_tenant_id", columnList = "tenant_id, id")
+})
+@Data
+public class RecurringInvoiceSchedule {
+
+    public static final String TABLE = "invoice_recurring_schedules";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    @Column(name = "owner_subject")
+    private String ownerSubject;
+
+    @Column(name = "client_name", nullable = false)
+    private String clientName;
+
+    @Column(nullable = false)
+    private Double amount;
+
+    private String description;
+
+    // Statut des factures générées : DRAFT ou SENT
+    @Column(name = "invoice_status", nullable = false, length = 32)
+    private String invoiceStatus;
+
+    @Column(name = "interval_months", nullable = false)
+    private int intervalMonths;
+
+    // Jour d'émission visé, ramené au dernier jour des mois plus courts
+    @Column(name = "day_of_month", nullable = false)
+    private int dayOfMonth;
+
+    @Column(name = "payment_terms_days", nullable = false)
+    private int paymentTermsDays;
+
+    @Column(name = "next_run_date", nullable = false)
+    private LocalDate nextRunDate;
+
+    @Column(name = "last_run_date")
+    private LocalDate lastRunDate;
+
+    @Column(name = "generated_count", nullable = false)
+    private long generatedCount;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    // Date d'émission suivant {@code from} selon l'intervalle et le jour visé
+    public static LocalDate nextRunDate(LocalDate from, int intervalMonths, int dayOfMonth) {
+        LocalDate month = from.plusMonths(intervalMonths);
+        return month.withDayOfMonth(Math.min(dayOfMonth, month.lengthOfMonth()));
+    }
+}
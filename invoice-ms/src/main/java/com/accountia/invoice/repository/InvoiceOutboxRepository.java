@@ -0,0 +1,31 @@
+package com.accountia.invoice.repository;
+
+import com.accountia.invoice.model.InvoiceOutboxEvent;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface InvoiceOutboxRepository extends JpaRepository<InvoiceOutboxEvent, Long> {
+
+    // Réserve les plus anciens événements non envoyés ; les lignes déjà verrouillées
+    // par une autre instance sont ignorées (lock timeout -2 = SKIP LOCKED).
+    // Les événements abandonnés (failed_at) ne sont plus relus
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    List<InvoiceOutboxEvent> findBySentAtIsNullAndFailedAtIsNullOrderByIdAsc(Limit limit);
+
+    @Modifying
+    @Query("DELETE FROM InvoiceOutboxEvent e WHERE e.sentAt < :before")
+    int deleteSentBefore(@Param("before") Instant before);
+}
@@ -0,0 +1,26 @@
+package com.accountia.invoice.repository;
+
+import com.accountia.invoice.dto.InvoiceStatusSummary;
+import com.accountia.invoice.model.InvoiceOwnerSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface InvoiceOwnerSummaryRepository
+        extends JpaRepository<InvoiceOwnerSummary, InvoiceOwnerSummary.Key> {
+
+    // Somme par statut ; tenant et propriétaire null = pas de filtre.
+    // Avec un tenant, la lecture suit le préfixe de clé primaire (tenant_id, owner_subject, status)
+    @Query("SELECT new com.accountia.invoice.dto.InvoiceStatusSummary(s.status, SUM(s.invoiceCount), "
+            + "SUM(s.totalAmount), SUM(s.overdueCount)) FROM InvoiceOwnerSummary s "
+            + "WHERE s.invoiceCount > 0"
+            + " AND (:tenantId IS NULL OR s.tenantId = :tenantId)"
+            + " AND (:ownerSubject IS NULL OR s.ownerSubject = :ownerSubject)"
+            + " GROUP BY s.status ORDER BY s.status")
+    List<InvoiceStatusSummary> sumByStatus(@Param("tenantId") String tenantId,
+                                           @Param("ownerSubject") String ownerSubject);
+}
@@ -0,0 +1,14 @@
+package com.accountia.invoice.repository;
+
+import com.accountia.invoice.model.InvoiceOwnerVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface InvoiceOwnerVersionRepository extends JpaRepository<InvoiceOwnerVersion, String> {
+
+    // Version globale (administrateurs) : les compteurs ne font que croître, leur somme aussi
+    @Query("SELECT COALESCE(SUM(v.version), 0) FROM InvoiceOwnerVersion v")
+    long sumVersions();
+}
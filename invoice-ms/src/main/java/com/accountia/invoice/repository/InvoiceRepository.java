@@ -1,26 +1,102 @@
 package com.accountia.invoice.repository;
 
+import com.accountia.invoice.dto.InvoiceAggregate;
+import com.accountia.invoice.dto.InvoiceView;
 import com.accountia.invoice.model.Invoice;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
 
-    // Trouver toutes les factures d'un propriétaire
-    List<Invoice> findByOwnerSubject(String ownerSubject);
+    // Les listes rendent des projections InvoiceView : aucune entité gérée, rien à vérifier au flush.
 
-    // Trouver par statut
-    List<Invoice> findByStatus(String status);
+    // ─── Pagination par curseur (keyset sur id décroissant) ─────
+    // Chaque méthode lit au plus "limit" lignes à partir de l'id du curseur,
+    // le coût ne dépend donc que de la taille de page.
 
-    // Trouver par propriétaire ET statut
-    List<Invoice> findByOwnerSubjectAndStatus(String ownerSubject, String status);
+    List<InvoiceView> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
 
-    // Trouver par nom de client (contient)
-    List<Invoice> findByClientNameContainingIgnoreCase(String clientName);
+    List<InvoiceView> findByOwnerSubjectAndIdLessThanOrderByIdDesc(String ownerSubject, Long id, Limit limit);
 
-    // Trouver par propriétaire ET nom de client
-    List<Invoice> findByOwnerSubjectAndClientNameContainingIgnoreCase(String ownerSubject, String clientName);
+    List<InvoiceView> findByStatusAndIdLessThanOrderByIdDesc(String status, Long id, Limit limit);
+
+    List<InvoiceView> findByOwnerSubjectAndStatusAndIdLessThanOrderByIdDesc(String ownerSubject, String status,
+                                                                            Long id, Limit limit);
+
+    List<InvoiceView> findByClientNameContainingIgnoreCaseAndIdLessThanOrderByIdDesc(String clientName, Long id,
+                                                                                     Limit limit);
+
+    List<InvoiceView> findByOwnerSubjectAndClientNameContainingIgnoreCaseAndIdLessThanOrderByIdDesc(
+            String ownerSubject, String clientName, Long id, Limit limit);
+
+    // ─── Par tenant (index menés par tenant_id, une seule partition lue) ─────
+
+    List<InvoiceView> findByTenantIdAndIdLessThanOrderByIdDesc(String tenantId, Long id, Limit limit);
+
+    List<InvoiceView> findByTenantIdAndStatusAndIdLessThanOrderByIdDesc(String tenantId, String status, Long id,
+                                                                        Limit limit);
+
+    // Page construite depuis l'index de trigrammes (ids déjà triés par l'appelant)
+    List<InvoiceView> findByIdIn(Collection<Long> ids);
+
+    // Lecture unitaire pour le cache : entité en lecture seule, sans copie pour le dirty checking
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    Optional<Invoice> findReadOnlyById(Long id);
+
+    // ─── Export en flux (curseur JDBC, entités en lecture seule) ──
+    // À consommer dans une transaction readOnly et à fermer après usage.
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Invoice> streamAllByOrderByIdAsc();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<Invoice> streamByOwnerSubjectOrderByIdAsc(String ownerSubject);
+
+    // ─── Agrégats (GROUP BY, aucune entité chargée) ─────────────
+    // Une variante globale (admin) et une variante par propriétaire pour chaque regroupement.
+
+    @Query("SELECT new com.accountia.invoice.dto.InvoiceAggregate(i.status, COUNT(i), SUM(i.amount), AVG(i.amount)) "
+            + "FROM Invoice i GROUP BY i.status ORDER BY i.status")
+    List<InvoiceAggregate> aggregateByStatus();
+
+    @Query("SELECT new com.accountia.invoice.dto.InvoiceAggregate(i.status, COUNT(i), SUM(i.amount), AVG(i.amount)) "
+            + "FROM Invoice i WHERE i.ownerSubject = :owner GROUP BY i.status ORDER BY i.status")
+    List<InvoiceAggregate> aggregateByStatus(@Param("owner") String ownerSubject);
+
+    @Query("SELECT new com.accountia.invoice.dto.InvoiceAggregate(i.clientName, COUNT(i), SUM(i.amount), AVG(i.amount)) "
+            + "FROM Invoice i GROUP BY i.clientName ORDER BY i.clientName")
+    List<InvoiceAggregate> aggregateByClientName();
+
+    @Query("SELECT new com.accountia.invoice.dto.InvoiceAggregate(i.clientName, COUNT(i), SUM(i.amount), AVG(i.amount)) "
+            + "FROM Invoice i WHERE i.ownerSubject = :owner GROUP BY i.clientName ORDER BY i.clientName")
+    List<InvoiceAggregate> aggregateByClientName(@Param("owner") String ownerSubject);
+
+    // Lignes [année, mois, nombre, total, moyenne]
+    @Query("SELECT YEAR(i.issueDate), MONTH(i.issueDate), COUNT(i), SUM(i.amount), AVG(i.amount) "
+            + "FROM Invoice i GROUP BY YEAR(i.issueDate), MONTH(i.issueDate) "
+            + "ORDER BY YEAR(i.issueDate), MONTH(i.issueDate)")
+    List<Object[]> aggregateByIssueMonth();
+
+    @Query("SELECT YEAR(i.issueDate), MONTH(i.issueDate), COUNT(i), SUM(i.amount), AVG(i.amount) "
+            + "FROM Invoice i WHERE i.ownerSubject = :owner GROUP BY YEAR(i.issueDate), MONTH(i.issueDate) "
+            + "ORDER BY YEAR(i.issueDate), MONTH(i.issueDate)")
+    List<Object[]> aggregateByIssueMonth(@Param("owner") String ownerSubject);
 }
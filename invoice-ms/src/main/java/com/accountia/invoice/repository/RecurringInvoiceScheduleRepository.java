@@ -0,0 +1,21 @@
+package com.accountia.invoice.repository;
+
+import com.accountia.invoice.model.RecurringInvoiceSchedule;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface RecurringInvoiceScheduleRepository extends JpaRepository<RecurringInvoiceSchedule, Long> {
+
+    // ─── Pagination par curseur (keyset sur id décroissant) ─────
+
+    List<RecurringInvoiceSchedule> findByIdLessThanOrderByIdDesc(Long id, Limit limit);
+
+    List<RecurringInvoiceSchedule> findByTenantIdAndIdLessThanOrderByIdDesc(String tenantId, Long id, Limit limit);
+
+    List<RecurringInvoiceSchedule> findByOwnerSubjectAndIdLessThanOrderByIdDesc(String ownerSubject, Long id,
+                                                                                Limit limit);
+}
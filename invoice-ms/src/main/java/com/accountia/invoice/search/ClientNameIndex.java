@@ -0,0 +1,438 @@
+package com.accountia.invoice.search;
+
+import com.accountia.invoice.dto.ClientNameIndexUpdate;
+import com.accountia.invoice.messaging.ClientNameIndexBroadcaster;
+import com.accountia.invoice.model.Invoice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Index inversé de trigrammes sur le nom de client, par propriétaire, tenu en mémoire.
+ *
+ * Remplace le {@code LIKE '%x%'} de /invoices/search : la recherche intersecte les listes
+ * d'ids des trigrammes de la requête puis vérifie la sous-chaîne sur le nom indexé ;
+ * seuls les ids retenus sont ensuite lus en base.
+ *
+ * Chargé au démarrage puis tenu à jour après commit des créations, modifications et
+ * suppressions : localement, puis sur les autres instances via l'exchange fanout
+ * {@code invoice.search.fanout} (une diffusion par transaction). Si une diffusion se perd,
+ * la reconstruction périodique ({@code invoice.search.rebuild-cron}) rattrape l'écart.
+ * Tant que l'index n'est pas prêt, ou pour une requête de moins de trois caractères,
+ * l'appelant interroge la base.
+ *
+ * Chaque facture est rangée sous son tenant et son propriétaire : le filtre de tenant
+ * s'applique dans l'index, avant la limite de la page.
+ */
+@Component
+public class ClientNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientNameIndex.class);
+
+    public static final int MIN_QUERY_LENGTH = 3;
+
+    private static final String LOAD_SQL = "SELECT id, tenant_id, owner_subject, client_name FROM invoices";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectProvider<ClientNameIndexBroadcaster> broadcaster;
+    private final boolean enabled;
+
+    private volatile Snapshot snapshot = new Snapshot();
+    private volatile boolean ready;
+
+    // Mutations reçues pendant une reconstruction, rejouées sur le nouvel index avant la bascule
+    private final Object rebuildLock = new Object();
+    private List<Consumer<Snapshot>> pendingDuringRebuild;
+
+    public ClientNameIndex(JdbcTemplate jdbcTemplate,
+                           ObjectProvider<ClientNameIndexBroadcaster> broadcaster,
+                           @Value("${invoice.search.index.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.broadcaster = broadcaster;
+        this.enabled = enabled;
+    }
+
+    // ─── CHARGEMENT ─────────────────────────────────────────────
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (enabled) rebuild();
+    }
+
+    @Scheduled(cron = "${invoice.search.rebuild-cron:0 30 3 * * *}")
+    public void scheduledRebuild() {
+        if (enabled && ready) rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (rebuildLock) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        Snapshot next = new Snapshot();
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(LOAD_SQL);
+                ps.setFetchSize(1000);
+                return ps;
+            }, rs -> {
+                next.put(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4));
+            });
+        } catch (RuntimeException e) {
+            synchronized (rebuildLock) {
+                pendingDuringRebuild = null;
+            }
+            log.error("Index des noms de client : échec du chargement, recherche en base : {}", e.getMessage());
+            return;
+        }
+        synchronized (rebuildLock) {
+            pendingDuringRebuild.forEach(mutation -> mutation.accept(next));
+            pendingDuringRebuild = null;
+            snapshot = next;
+        }
+        ready = true;
+        log.info("Index des noms de client chargé : {} factures en {} ms",
+                next.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ─── MISE À JOUR ────────────────────────────────────────────
+    // Appliquée après commit : un rollback ne doit pas laisser de trace dans l'index.
+    // Les changements d'une transaction sont regroupés en une seule diffusion.
+
+    public void indexed(Invoice invoice) {
+        record(new ClientNameIndexUpdate.Entry(invoice.getId(), invoice.getTenantId(),
+                invoice.getOwnerSubject(), invoice.getClientName()), null);
+    }
+
+    public void removed(Long id) {
+        record(null, id);
+    }
+
+    /**
+     * Changements reçus d'une autre instance : application locale uniquement.
+     */
+    public void applyRemote(ClientNameIndexUpdate update) {
+        if (!enabled) return;
+        apply(update);
+    }
+
+    private void record(ClientNameIndexUpdate.Entry upsert, Long removedId) {
+        if (!enabled) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            PendingChanges changes = new PendingChanges();
+            changes.add(upsert, removedId);
+            publish(changes.toUpdate());
+            return;
+        }
+        PendingChanges changes = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            PendingChanges created = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(created.toUpdate());
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(ClientNameIndex.this);
+                }
+            });
+            changes = created;
+        }
+        changes.add(upsert, removedId);
+    }
+
+    private void publish(ClientNameIndexUpdate update) {
+        apply(update);
+        broadcaster.ifAvailable(b -> b.broadcast(update));
+    }
+
+    private void apply(ClientNameIndexUpdate update) {
+        Consumer<Snapshot> mutation = s -> {
+            for (ClientNameIndexUpdate.Entry entry : update.upserts()) {
+                s.put(entry.id(), entry.tenantId(), entry.ownerSubject(), entry.clientName());
+            }
+            for (Long id : update.removedIds()) s.remove(id);
+        };
+        synchronized (rebuildLock) {
+            mutation.accept(snapshot);
+            if (pendingDuringRebuild != null) pendingDuringRebuild.add(mutation);
+        }
+    }
+
+    // ─── RECHERCHE ──────────────────────────────────────────────
+
+    /**
+     * Vrai si l'index peut répondre à cette requête (index prêt et au moins un trigramme).
+     */
+    public boolean canServe(String clientName) {
+        return ready && clientName != null && normalize(clientName).length() >= MIN_QUERY_LENGTH;
+    }
+
+    /**
+     * Ids des factures du propriétaire dont le nom de client contient la requête,
+     * par id décroissant, strictement inférieurs à {@code beforeId}, au plus {@code limit}.
+     * {@code tenantId} null : tous les tenants du propriétaire.
+     */
+    public List<Long> search(String tenantId, String ownerSubject, String clientName, long beforeId, int limit) {
+        String owner = ownerKey(ownerSubject);
+        if (tenantId != null) {
+            OwnerIndex index = snapshot.owners.get(new Scope(tenantId, owner));
+            return index == null ? List.of() : index.search(normalize(clientName), beforeId, limit);
+        }
+        return searchScopes(scope -> scope.owner().equals(owner), clientName, beforeId, limit);
+    }
+
+    /**
+     * Même recherche sur tous les propriétaires du tenant (administrateurs) ;
+     * {@code tenantId} null : tous les tenants.
+     */
+    public List<Long> searchAll(String tenantId, String clientName, long beforeId, int limit) {
+        String tenant = tenantId == null ? null : tenantKey(tenantId);
+        return searchScopes(scope -> tenant == null || scope.tenant().equals(tenant), clientName, beforeId, limit);
+    }
+
+    private List<Long> searchScopes(Predicate<Scope> filter, String clientName, long beforeId, int limit) {
+        String query = normalize(clientName);
+        List<Long> merged = new ArrayList<>();
+        for (Map.Entry<Scope, OwnerIndex> entry : snapshot.owners.entrySet()) {
+            if (filter.test(entry.getKey())) merged.addAll(entry.getValue().search(query, beforeId, limit));
+        }
+        merged.sort((a, b) -> Long.compare(b, a));
+        return merged.size() > limit ? new ArrayList<>(merged.subList(0, limit)) : merged;
+    }
+
+    // ─── HELPERS ────────────────────────────────────────────────
+
+    static String normalize(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String ownerKey(String ownerSubject) {
+        return ownerSubject == null ? "" : ownerSubject;
+    }
+
+    private static String tenantKey(String tenantId) {
+        return tenantId == null ? "" : tenantId;
+    }
+
+    // Trois caractères UTF-16 tiennent dans 48 bits
+    private static Set<Long> trigrams(String normalized) {
+        Set<Long> result = new HashSet<>();
+        for (int i = 0; i + MIN_QUERY_LENGTH <= normalized.length(); i++) {
+            result.add(((long) normalized.charAt(i) << 32)
+                    | ((long) normalized.charAt(i + 1) << 16)
+                    | normalized.charAt(i + 2));
+        }
+        return result;
+    }
+
+    /**
+     * État complet de l'index ; remplacé d'un bloc à chaque reconstruction.
+     */
+    private static final class Snapshot {
+
+        final Map<Scope, OwnerIndex> owners = new ConcurrentHashMap<>();
+        final Map<Long, Scope> scopeById = new ConcurrentHashMap<>();
+
+        void put(long id, String tenantId, String ownerSubject, String clientName) {
+            Scope scope = new Scope(tenantKey(tenantId), ownerKey(ownerSubject));
+            Scope previousScope = scopeById.put(id, scope);
+            if (previousScope != null && !previousScope.equals(scope)) {
+                OwnerIndex previous = owners.get(previousScope);
+                if (previous != null) previous.remove(id);
+            }
+            owners.computeIfAbsent(scope, o -> new OwnerIndex()).put(id, normalize(clientName));
+        }
+
+        void remove(long id) {
+            Scope scope = scopeById.remove(id);
+            if (scope == null) return;
+            OwnerIndex index = owners.get(scope);
+            if (index != null) index.remove(id);
+        }
+
+        int size() {
+            return scopeById.size();
+        }
+    }
+
+    // Tenant et propriétaire d'une facture ("" pour une valeur absente)
+    private record Scope(String tenant, String owner) {
+    }
+
+    /**
+     * Changements d'une transaction en cours, diffusés en une fois après commit.
+     */
+    private static final class PendingChanges {
+
+        private final Map<Long, ClientNameIndexUpdate.Entry> upserts = new LinkedHashMap<>();
+        private final Set<Long> removedIds = new LinkedHashSet<>();
+
+        void add(ClientNameIndexUpdate.Entry upsert, Long removedId) {
+            if (upsert != null) {
+                removedIds.remove(upsert.id());
+                upserts.put(upsert.id(), upsert);
+            }
+            if (removedId != null) {
+                upserts.remove(removedId);
+                removedIds.add(removedId);
+            }
+        }
+
+        ClientNameIndexUpdate toUpdate() {
+            return new ClientNameIndexUpdate(null, List.copyOf(upserts.values()), List.copyOf(removedIds));
+        }
+    }
+
+    /**
+     * Index d'un propriétaire : nom normalisé par id et listes d'ids triées par trigramme.
+     */
+    private static final class OwnerIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Map<Long, String> names = new HashMap<>();
+        private final Map<Long, PostingList> postings = new HashMap<>();
+
+        void put(long id, String name) {
+            lock.writeLock().lock();
+            try {
+                String previous = names.put(id, name);
+                if (name.equals(previous)) return;
+                if (previous != null) {
+                    for (Long gram : trigrams(previous)) removePosting(gram, id);
+                }
+                for (Long gram : trigrams(name)) {
+                    postings.computeIfAbsent(gram, g -> new PostingList()).add(id);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(long id) {
+            lock.writeLock().lock();
+            try {
+                String previous = names.remove(id);
+                if (previous == null) return;
+                for (Long gram : trigrams(previous)) removePosting(gram, id);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        List<Long> search(String query, long beforeId, int limit) {
+            lock.readLock().lock();
+            try {
+                List<PostingList> lists = new ArrayList<>();
+                for (Long gram : trigrams(query)) {
+                    PostingList list = postings.get(gram);
+                    if (list == null) return List.of();
+                    lists.add(list);
+                }
+                // On parcourt la liste la plus courte et on sonde les autres par dichotomie
+                lists.sort((a, b) -> Integer.compare(a.size, b.size));
+                PostingList driver = lists.get(0);
+                List<Long> result = new ArrayList<>(Math.min(limit, driver.size));
+                for (int i = driver.lowerIndex(beforeId); i >= 0 && result.size() < limit; i--) {
+                    long id = driver.ids[i];
+                    if (containsAll(lists, id) && names.get(id).contains(query)) {
+                        result.add(id);
+                    }
+                }
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private static boolean containsAll(List<PostingList> lists, long id) {
+            for (int k = 1; k < lists.size(); k++) {
+                if (!lists.get(k).contains(id)) return false;
+            }
+            return true;
+        }
+
+        private void removePosting(Long gram, long id) {
+            PostingList list = postings.get(gram);
+            if (list == null) return;
+            list.remove(id);
+            if (list.size == 0) postings.remove(gram);
+        }
+    }
+
+    /**
+     * Liste d'ids triée par ordre croissant ; les nouveaux ids arrivent en fin de liste.
+     */
+    static final class PostingList {
+
+        long[] ids = new long[4];
+        int size;
+
+        void add(long id) {
+            if (size == 0 || ids[size - 1] < id) {
+                ensureCapacity();
+                ids[size++] = id;
+                return;
+            }
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) return;
+            int insert = -pos - 1;
+            ensureCapacity();
+            System.arraycopy(ids, insert, ids, insert + 1, size - insert);
+            ids[insert] = id;
+            size++;
+        }
+
+        void remove(long id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos < 0) return;
+            System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+            size--;
+        }
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        // Position du plus grand id strictement inférieur à beforeId, -1 s'il n'y en a pas
+        int lowerIndex(long beforeId) {
+            int pos = Arrays.binarySearch(ids, 0, size, beforeId);
+            return pos >= 0 ? pos - 1 : -pos - 2;
+        }
+
+        private void ensureCapacity() {
+            if (size == ids.length) ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.dto.InvoiceAggregate;
+import com.accountia.invoice.repository.InvoiceRepository;
+import com.accountia.invoice.util.SecurityUtil;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Totaux, nombres et montants moyens des factures, calculés en base par GROUP BY.
+ * Les non-administrateurs ne voient que leurs propres factures.
+ */
+@Service
+public class InvoiceAggregateService {
+
+    public enum GroupBy {
+        STATUS, MONTH, CLIENT;
+
+        public static GroupBy from(String value) {
+            if (value == null || value.isBlank()) return STATUS;
+            try {
+                return GroupBy.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Regroupement non supporté : " + value + " (status, month ou client)");
+            }
+        }
+    }
+
+    private final InvoiceRepository invoiceRepository;
+
+    public InvoiceAggregateService(InvoiceRepository invoiceRepository) {
+        this.invoiceRepository = invoiceRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public List<InvoiceAggregate> aggregate(GroupBy groupBy) {
+        if (SecurityUtil.isAdmin()) {
+            return switch (groupBy) {
+                case STATUS -> invoiceRepository.aggregateByStatus();
+                case CLIENT -> invoiceRepository.aggregateByClientName();
+                case MONTH -> toMonthAggregates(invoiceRepository.aggregateByIssueMonth());
+            };
+        }
+        String subject = SecurityUtil.getCurrentSubject();
+        if (subject == null || subject.isBlank()) return List.of();
+        return switch (groupBy) {
+            case STATUS -> invoiceRepository.aggregateByStatus(subject);
+            case CLIENT -> invoiceRepository.aggregateByClientName(subject);
+            case MONTH -> toMonthAggregates(invoiceRepository.aggregateByIssueMonth(subject));
+        };
+    }
+
+    // Clé "AAAA-MM" ; null pour les factures sans date d'émission
+    private static List<InvoiceAggregate> toMonthAggregates(List<Object[]> rows) {
+        return rows.stream()
+                .map(row -> new InvoiceAggregate(
+                        row[0] == null ? null : String.format("%04d-%02d", ((Number) row[0]).intValue(),
+                                ((Number) row[1]).intValue()),
+                        ((Number) row[2]).longValue(),
+                        row[3] == null ? null : ((Number) row[3]).doubleValue(),
+                        row[4] == null ? null : ((Number) row[4]).doubleValue()))
+                .toList();
+    }
+}
@@ -0,0 +1,174 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.dto.InvoiceAging;
+import com.accountia.invoice.util.SecurityUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.text.Collator;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Balance âgée des factures impayées (SENT, OVERDUE), par client.
+ *
+ * Une seule requête triée par client, lue en flux : chaque ligne est ajoutée à l'accumulateur
+ * du client courant, émis dès que le client change. Les montants sont cumulés en centimes dans
+ * des {@code long} ; la mémoire dépend du nombre de clients rendus, jamais du nombre de factures lues.
+ *
+ * Connector/J n'honore la taille de lot qu'avec {@code useCursorFetch=true} dans l'URL ; sans ce
+ * paramètre il charge tout le résultat en mémoire. On vérifie donc les URL au démarrage : s'il
+ * manque, la lecture passe en flux ligne à ligne ({@code Integer.MIN_VALUE}) et un avertissement
+ * est journalisé.
+ */
+@Service
+public class InvoiceAgingService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceAgingService.class);
+
+    private static final String AGING_SQL =
+            "SELECT client_name, amount, due_date FROM invoices WHERE status IN ('SENT', 'OVERDUE')";
+
+    // Taille de lot spéciale de Connector/J : flux ligne à ligne, sans curseur côté serveur
+    static final int ROW_STREAMING = Integer.MIN_VALUE;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public InvoiceAgingService(JdbcTemplate jdbcTemplate,
+                               @Value("${invoice.aging.fetch-size:1000}") int fetchSize,
+                               @Value("${spring.datasource.url:}") String primaryUrl,
+                               @Value("${accountia.datasource.replica.enabled:false}") boolean replicaEnabled,
+                               @Value("${accountia.datasource.replica.url:}") String replicaUrl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = effectiveFetchSize(fetchSize, primaryUrl, replicaEnabled ? replicaUrl : null);
+    }
+
+    // La requête part sur la réplique si elle est active : les deux URL doivent avoir le curseur
+    static int effectiveFetchSize(int configured, String... urls) {
+        for (String url : urls) {
+            if (isMySql(url) && !url.contains("useCursorFetch=true")) {
+                log.warn("Balance âgée : useCursorFetch=true absent de {} ; fetch-size {} ignorée, "
+                        + "lecture en flux ligne à ligne", url.split("\\?", 2)[0], configured);
+                return ROW_STREAMING;
+            }
+        }
+        return configured;
+    }
+
+    private static boolean isMySql(String url) {
+        return url != null && url.startsWith("jdbc:mysql:");
+    }
+
+    /**
+     * Administrateur : tenant du jeton, sinon celui demandé (null = tous les tenants).
+     * Utilisateur : ses propres factures.
+     */
+    @Transactional(readOnly = true)
+    public List<InvoiceAging> aging(String requestedTenant, LocalDate asOf) {
+        String tenant = SecurityUtil.getCurrentTenant();
+        String owner = null;
+        if (SecurityUtil.isAdmin()) {
+            if (tenant == null && requestedTenant != null && !requestedTenant.isBlank()) tenant = requestedTenant;
+        } else {
+            owner = SecurityUtil.getCurrentSubject();
+            if (owner == null || owner.isBlank()) {
+                throw new AccessDeniedException("Accès refusé : utilisateur non identifié");
+            }
+        }
+
+        // Requête SQL directe : le filtre de tenant Hibernate ne s'applique pas, on l'ajoute ici
+        StringBuilder sql = new StringBuilder(AGING_SQL);
+        List<Object> args = new ArrayList<>(2);
+        if (tenant != null) {
+            sql.append(" AND tenant_id = ?");
+            args.add(tenant);
+        }
+        if (owner != null) {
+            sql.append(" AND owner_subject = ?");
+            args.add(owner);
+        }
+        sql.append(" ORDER BY client_name");
+
+        long start = System.currentTimeMillis();
+        long today = (asOf == null ? LocalDate.now() : asOf).toEpochDay();
+        List<InvoiceAging> result = new ArrayList<>();
+        // Même regroupement que le tri de la base (collation insensible à la casse et aux accents) :
+        // deux graphies d'un même client sont adjacentes et cumulées sous la première
+        Collator collator = Collator.getInstance(Locale.ROOT);
+        collator.setStrength(Collator.PRIMARY);
+        Accumulator acc = new Accumulator();
+        long[] rows = {0};
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(),
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+            return ps;
+        }, rs -> {
+            String clientName = rs.getString(1);
+            if (acc.count > 0 && !sameClient(collator, clientName, acc.clientName)) {
+                result.add(acc.toAging());
+                acc.reset();
+            }
+            if (acc.count == 0) acc.clientName = clientName;
+            Date dueDate = rs.getDate(3);
+            acc.add(Math.round(rs.getDouble(2) * 100), dueDate == null ? 0 : today - dueDate.toLocalDate().toEpochDay());
+            rows[0]++;
+        });
+        if (acc.count > 0) result.add(acc.toAging());
+        log.info("Balance âgée : {} factures impayées, {} clients en {} ms",
+                rows[0], result.size(), System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private static boolean sameClient(Collator collator, String a, String b) {
+        if (a == null || b == null) return a == b;
+        return collator.compare(a, b) == 0;
+    }
+
+    // Cumuls en centimes du client courant
+    private static final class Accumulator {
+        private String clientName;
+        private long count;
+        private long current;
+        private long days1To30;
+        private long days31To60;
+        private long days61To90;
+        private long over90;
+
+        void add(long cents, long daysPastDue) {
+            count++;
+            if (daysPastDue <= 0) current += cents;
+            else if (daysPastDue <= 30) days1To30 += cents;
+            else if (daysPastDue <= 60) days31To60 += cents;
+            else if (daysPastDue <= 90) days61To90 += cents;
+            else over90 += cents;
+        }
+
+        InvoiceAging toAging() {
+            return new InvoiceAging(clientName, count, amount(current), amount(days1To30), amount(days31To60),
+                    amount(days61To90), amount(over90),
+                    amount(current + days1To30 + days31To60 + days61To90 + over90));
+        }
+
+        void reset() {
+            count = current = days1To30 = days31To60 = days61To90 = over90 = 0;
+        }
+
+        private static BigDecimal amount(long cents) {
+            return BigDecimal.valueOf(cents, 2);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.model.Invoice;
+import com.accountia.invoice.repository.InvoiceRepository;
+import com.accountia.invoice.util.SecurityUtil;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Export en masse des factures, écrit ligne par ligne depuis un curseur JDBC.
+ * La mémoire utilisée ne dépend pas du nombre de factures exportées.
+ */
+@Service
+public class InvoiceExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceExportService.class);
+
+    private static final String CSV_HEADER =
+            "id,tenantId,invoiceNumber,clientName,amount,description,issueDate,dueDate,status,ownerSubject";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() { return contentType; }
+        public String getExtension() { return extension; }
+
+        public static Format from(String value) {
+            if (value == null || value.isBlank()) return NDJSON;
+            try {
+                return Format.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Format d'export non supporté : " + value + " (ndjson ou csv)");
+            }
+        }
+    }
+
+    /**
+     * Périmètre de l'export, résolu sur le thread de la requête : l'écriture du flux
+     * se fait ensuite sur un thread asynchrone qui n'a plus le SecurityContext.
+     */
+    public record Scope(boolean admin, String ownerSubject) {
+    }
+
+    private final InvoiceRepository invoiceRepository;
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+
+    public InvoiceExportService(InvoiceRepository invoiceRepository,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper) {
+        this.invoiceRepository = invoiceRepository;
+        this.entityManager = entityManager;
+        this.jsonWriter = objectMapper.writerFor(Invoice.class);
+    }
+
+    public Scope currentScope() {
+        if (SecurityUtil.isAdmin()) {
+            return new Scope(true, null);
+        }
+        String subject = SecurityUtil.getCurrentSubject();
+        if (subject == null || subject.isBlank()) {
+            throw new AccessDeniedException("Accès refusé : utilisateur non identifié");
+        }
+        return new Scope(false, subject);
+    }
+
+    @Transactional(readOnly = true)
+    public long export(Scope scope, Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        long count = 0;
+        try (Stream<Invoice> invoices = scope.admin()
+                ? invoiceRepository.streamAllByOrderByIdAsc()
+                : invoiceRepository.streamByOwnerSubjectOrderByIdAsc(scope.ownerSubject())) {
+            if (format == Format.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<Invoice> it = invoices.iterator();
+            while (it.hasNext()) {
+                Invoice invoice = it.next();
+                if (format == Format.CSV) {
+                    writeCsv(writer, invoice);
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(invoice));
+                    writer.write('\n');
+                }
+                // Détacher l'entité pour que le contexte de persistance ne grossisse pas
+                entityManager.detach(invoice);
+                count++;
+            }
+        }
+        writer.flush();
+        log.info("Export {} terminé : {} factures", format, count);
+        return count;
+    }
+
+    private void writeCsv(Writer writer, Invoice invoice) throws IOException {
+        writer.write(String.valueOf(invoice.getId()));
+        writer.write(',');
+        writer.write(csv(invoice.getTenantId()));
+        writer.write(',');
+        writer.write(csv(invoice.getInvoiceNumber()));
+        writer.write(',');
+        writer.write(csv(invoice.getClientName()));
+        writer.write(',');
+        writer.write(invoice.getAmount() == null ? "" : invoice.getAmount().toString());
+        writer.write(',');
+        writer.write(csv(invoice.getDescription()));
+        writer.write(',');
+        writer.write(invoice.getIssueDate() == null ? "" : invoice.getIssueDate().toString());
+        writer.write(',');
+        writer.write(invoice.getDueDate() == null ? "" : invoice.getDueDate().toString());
+        writer.write(',');
+        writer.write(csv(invoice.getStatus()));
+        writer.write(',');
+        writer.write(csv(invoice.getOwnerSubject()));
+        writer.write('\n');
+    }
+
+    private static String csv(String value) {
+        if (value == null) return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,296 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.dto.InvoiceNumberGap;
+import com.accountia.invoice.model.Invoice;
+import com.accountia.invoice.model.InvoiceNumberBlock;
+import com.accountia.invoice.model.InvoiceNumberCounter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Numéros de facture lisibles, séquentiels par tenant et par année ({@code 2026-000123}).
+ *
+ * Chaque instance réserve des blocs de {@code invoice.numbering.block-size} numéros dans
+ * {@code invoice_number_counters}, par une courte transaction indépendante de celle de la
+ * facture, puis les distribue depuis la mémoire avec un compteur atomique. La réservation
+ * passe par un petit pool dédié ({@code invoice.numbering.pool-size}) vers le primaire : la
+ * transaction de la facture tient déjà une connexion du pool principal, et attendre une
+ * seconde connexion de ce pool bloquerait toutes les créations quand il est épuisé. Le verrou
+ * sur la ligne du compteur ne dure que le temps de la réservation, une fois par bloc. Un lot d'au
+ * moins un bloc reçoit sa propre plage contiguë, en une seule réservation.
+ *
+ * Les numéros sont uniques entre instances mais pas sans trou : un bloc entamé au moment d'un
+ * arrêt, une transaction annulée ou une facture supprimée en laissent. Chaque bloc est inscrit
+ * dans {@code invoice_number_blocks} pour que {@link #findGaps} puisse les rapporter.
+ */
+@Service
+public class InvoiceNumberAllocator implements DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceNumberAllocator.class);
+
+    public static final String GAP_NOT_ISSUED = "NOT_ISSUED";
+    public static final String GAP_OPEN_BLOCK = "OPEN_BLOCK";
+    public static final String GAP_MISSING = "MISSING";
+
+    private static final String RESERVE_SQL = "INSERT INTO " + InvoiceNumberCounter.TABLE
+            + " (tenant_id, number_year, next_number) VALUES (?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE next_number = next_number + ?";
+    private static final String COUNTER_SQL = "SELECT next_number FROM " + InvoiceNumberCounter.TABLE
+            + " WHERE tenant_id = ? AND number_year = ?";
+    private static final String INSERT_BLOCK_SQL = "INSERT INTO " + InvoiceNumberBlock.TABLE
+            + " (tenant_id, number_year, first_number, last_number, instance_id, reserved_at, released_at, next_unused)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String RELEASE_BLOCK_SQL = "UPDATE " + InvoiceNumberBlock.TABLE
+            + " SET released_at = ?, next_unused = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    // Réservation hors de la transaction de la facture, sur son propre pool : le verrou du
+    // compteur est rendu aussitôt et aucune connexion du pool principal n'est attendue
+    private final HikariDataSource reservationDataSource;
+    private final JdbcTemplate reservationJdbc;
+    private final TransactionTemplate reservationTransaction;
+    private final int blockSize;
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName();
+
+    // "tenant/année" -> bloc en cours de distribution
+    private final Map<String, Slot> slots = new ConcurrentHashMap<>();
+
+    public InvoiceNumberAllocator(JdbcTemplate jdbcTemplate,
+                                  DataSourceProperties dataSourceProperties,
+                                  @Value("${invoice.numbering.block-size:100}") int blockSize,
+                                  @Value("${invoice.numbering.pool-size:2}") int poolSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("invoice.numbering.block-size doit être positif");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        // spring.datasource.* désigne toujours le primaire, même quand la réplique est activée
+        this.reservationDataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        this.reservationDataSource.setPoolName("numbering");
+        this.reservationDataSource.setMaximumPoolSize(poolSize);
+        this.reservationDataSource.setMinimumIdle(1);
+        this.reservationJdbc = new JdbcTemplate(reservationDataSource);
+        this.reservationTransaction = new TransactionTemplate(new DataSourceTransactionManager(reservationDataSource));
+        this.reservationTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = blockSize;
+    }
+
+    // ─── ATTRIBUTION ────────────────────────────────────────────
+
+    public void assignNumber(Invoice invoice) {
+        int year = invoice.getIssueDate().getYear();
+        invoice.setInvoiceNumber(format(year, next(invoice.getTenantId(), year)));
+    }
+
+    // Regroupe par tenant et année : un groupe d'au moins un bloc est numéroté d'une seule réservation
+    public void assignNumbers(List<Invoice> invoices) {
+        Map<String, List<Invoice>> groups = new LinkedHashMap<>();
+        for (Invoice invoice : invoices) {
+            groups.computeIfAbsent(key(invoice.getTenantId(), invoice.getIssueDate().getYear()),
+                    k -> new ArrayList<>()).add(invoice);
+        }
+        for (List<Invoice> group : groups.values()) {
+            String tenantId = group.get(0).getTenantId();
+            int year = group.get(0).getIssueDate().getYear();
+            if (group.size() < blockSize) {
+                group.forEach(this::assignNumber);
+                continue;
+            }
+            long number = reserve(tenantId, year, group.size(), null, true).first;
+            for (Invoice invoice : group) {
+                invoice.setInvoiceNumber(format(year, number++));
+            }
+        }
+    }
+
+    private long next(String tenantId, int year) {
+        Slot slot = slots.computeIfAbsent(key(tenantId, year), k -> new Slot());
+        while (true) {
+            Block block = slot.block;
+            if (block != null) {
+                long number = block.next.getAndIncrement();
+                if (number <= block.last) return number;
+            }
+            synchronized (slot) {
+                // Un autre thread a peut-être déjà remplacé le bloc épuisé
+                if (slot.block == block) {
+                    slot.block = reserve(tenantId, year, blockSize, block, false);
+                }
+            }
+        }
+    }
+
+    private Block reserve(String tenantId, int year, int size, Block exhausted, boolean dedicated) {
+        return reservationTransaction.execute(status -> {
+            reservationJdbc.update(RESERVE_SQL, tenantId, year, 1L + size, size);
+            long next = reservationJdbc.queryForObject(COUNTER_SQL, Long.class, tenantId, year);
+            long first = next - size;
+            long last = next - 1;
+            Timestamp now = Timestamp.from(Instant.now());
+
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            reservationJdbc.update(con -> {
+                PreparedStatement ps = con.prepareStatement(INSERT_BLOCK_SQL, new String[]{"id"});
+                ps.setString(1, tenantId);
+                ps.setInt(2, year);
+                ps.setLong(3, first);
+                ps.setLong(4, last);
+                ps.setString(5, instanceId);
+                ps.setTimestamp(6, now);
+                // Un bloc de lot est entièrement distribué dès sa réservation
+                ps.setTimestamp(7, dedicated ? now : null);
+                if (dedicated) ps.setLong(8, last + 1); else ps.setNull(8, Types.BIGINT);
+                return ps;
+            }, keyHolder);
+            if (exhausted != null) {
+                reservationJdbc.update(RELEASE_BLOCK_SQL, now, exhausted.last + 1, exhausted.id);
+            }
+            log.debug("Bloc de numéros {}..{} réservé pour {} / {}", first, last, tenantId, year);
+            return new Block(keyHolder.getKey().longValue(), first, last);
+        });
+    }
+
+    // ─── ARRÊT ──────────────────────────────────────────────────
+
+    // Rend les blocs entamés : leurs numéros non distribués sont rapportés comme NOT_ISSUED
+    @Override
+    public void destroy() {
+        try {
+            releaseBlocks();
+        } finally {
+            reservationDataSource.close();
+        }
+    }
+
+    private void releaseBlocks() {
+        Timestamp now = Timestamp.from(Instant.now());
+        slots.forEach((key, slot) -> {
+            Block block = slot.block;
+            if (block == null) return;
+            long nextUnused = Math.min(block.next.get(), block.last + 1);
+            try {
+                reservationJdbc.update(RELEASE_BLOCK_SQL, now, nextUnused, block.id);
+                if (nextUnused <= block.last) {
+                    log.info("Numéros {}..{} non distribués ({}) : bloc {} rendu",
+                            nextUnused, block.last, key, block.id);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Bloc de numéros {} non rendu : {}", block.id, e.getMessage());
+            }
+        });
+    }
+
+    // ─── TROUS ──────────────────────────────────────────────────
+
+    /**
+     * Trous de la numérotation d'un tenant pour une année, bloc par bloc. Les numéros du bloc
+     * en cours de cette instance qui n'ont pas encore été distribués ne sont pas des trous.
+     */
+    @Transactional(readOnly = true)
+    public List<InvoiceNumberGap> findGaps(String tenantId, int year) {
+        BitSet used = new BitSet();
+        String prefix = year + "-";
+        jdbcTemplate.query("SELECT invoice_number FROM invoices WHERE tenant_id = ? AND invoice_number LIKE ?",
+                rs -> {
+                    used.set(Integer.parseInt(rs.getString(1).substring(prefix.length())));
+                }, tenantId, prefix + "%");
+
+        Map<Long, Long> localNext = new HashMap<>();
+        Slot slot = slots.get(key(tenantId, year));
+        Block current = slot == null ? null : slot.block;
+        if (current != null) localNext.put(current.id, current.next.get());
+
+        List<InvoiceNumberGap> gaps = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, first_number, last_number, instance_id, released_at, next_unused FROM "
+                + InvoiceNumberBlock.TABLE + " WHERE tenant_id = ? AND number_year = ? ORDER BY first_number", rs -> {
+            long id = rs.getLong(1);
+            long first = rs.getLong(2);
+            long last = rs.getLong(3);
+            String instance = rs.getString(4);
+            boolean released = rs.getTimestamp(5) != null;
+            long nextUnused = rs.getLong(6);
+
+            Long local = localNext.get(id);
+            if (local != null) {
+                addMissing(gaps, used, first, Math.min(local, last + 1) - 1, id, instance, GAP_MISSING);
+            } else if (released) {
+                addMissing(gaps, used, first, nextUnused - 1, id, instance, GAP_MISSING);
+                if (nextUnused <= last) {
+                    gaps.add(new InvoiceNumberGap(nextUnused, last, id, instance, GAP_NOT_ISSUED));
+                }
+            } else {
+                addMissing(gaps, used, first, last, id, instance, GAP_OPEN_BLOCK);
+            }
+        }, tenantId, year);
+        return gaps;
+    }
+
+    private static void addMissing(List<InvoiceNumberGap> gaps, BitSet used, long from, long to,
+                                   long blockId, String instanceId, String reason) {
+        int n = Math.toIntExact(from);
+        int end = Math.toIntExact(to);
+        while (n <= end) {
+            int start = used.nextClearBit(n);
+            if (start > end) return;
+            int nextUsed = used.nextSetBit(start);
+            int stop = nextUsed < 0 || nextUsed > end ? end : nextUsed - 1;
+            gaps.add(new InvoiceNumberGap(start, stop, blockId, instanceId, reason));
+            n = stop + 1;
+        }
+    }
+
+    // ─── HELPERS ────────────────────────────────────────────────
+
+    public static String format(int year, long number) {
+        return String.format("%d-%06d", year, number);
+    }
+
+    private static String key(String tenantId, int year) {
+        return tenantId + "/" + year;
+    }
+
+    private static final class Slot {
+        private volatile Block block;
+    }
+
+    private static final class Block {
+        private final long id;
+        private final long first;
+        private final long last;
+        private final AtomicLong next;
+
+        private Block(long id, long first, long last) {
+            this.id = id;
+            this.first = first;
+            this.last = last;
+            this.next = new AtomicLong(first);
+        }
+    }
+}
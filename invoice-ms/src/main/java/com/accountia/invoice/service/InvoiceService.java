@@ -1,109 +1,459 @@
 package com.accountia.invoice.service;
 
+import com.accountia.invoice.cache.InvoiceCache;
+import com.accountia.invoice.dto.BatchItemResult;
 import com.accountia.invoice.dto.InvoiceDTO;
+import com.accountia.invoice.dto.InvoiceNumberGap;
+import com.accountia.invoice.dto.InvoicePage;
+import com.accountia.invoice.dto.InvoicePatch;
+import com.accountia.invoice.dto.InvoiceView;
+import com.accountia.invoice.messaging.InvoiceOutbox;
 import com.accountia.invoice.model.Invoice;
 import com.accountia.invoice.repository.InvoiceRepository;
+import com.accountia.invoice.search.ClientNameIndex;
+import com.accountia.invoice.util.InvoiceCursor;
 import com.accountia.invoice.util.SecurityUtil;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Date;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class InvoiceService {
 
     private final InvoiceRepository invoiceRepository;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final InvoiceOutbox invoiceOutbox;
+    private final ClientNameIndex clientNameIndex;
+    private final InvoiceSummaryService summaryService;
+    private final InvoiceVersionService versionService;
+    private final InvoiceCache invoiceCache;
+    private final InvoiceNumberAllocator numberAllocator;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final int jdbcBatchSize;
+    private final int maxBatchItems;
 
-    public InvoiceService(InvoiceRepository invoiceRepository) {
+    public InvoiceService(InvoiceRepository invoiceRepository,
+                          EntityManager entityManager,
+                          JdbcTemplate jdbcTemplate,
+                          InvoiceOutbox invoiceOutbox,
+                          ClientNameIndex clientNameIndex,
+                          InvoiceSummaryService summaryService,
+                          InvoiceVersionService versionService,
+                          InvoiceCache invoiceCache,
+                          InvoiceNumberAllocator numberAllocator,
+                          @Value("${invoice.pagination.default-size:50}") int defaultPageSize,
+                          @Value("${invoice.pagination.max-size:200}") int maxPageSize,
+                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize,
+                          @Value("${invoice.batch.max-items:5000}") int maxBatchItems) {
         this.invoiceRepository = invoiceRepository;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.invoiceOutbox = invoiceOutbox;
+        this.clientNameIndex = clientNameIndex;
+        this.summaryService = summaryService;
+        this.versionService = versionService;
+        this.invoiceCache = invoiceCache;
+        this.numberAllocator = numberAllocator;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.maxBatchItems = maxBatchItems;
     }
 
     // ─── GET ALL ────────────────────────────────────────────────
-    public List<Invoice> getAllInvoices() {
+    // Lectures de liste : transaction readOnly (pas de flush) et projections InvoiceView
+    @Transactional(readOnly = true)
+    public InvoicePage getAllInvoices(String tenantId, String cursor, Integer size) {
+        long beforeId = InvoiceCursor.decode(cursor);
+        int pageSize = resolvePageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
         if (SecurityUtil.isAdmin()) {
-            return invoiceRepository.findAll();
+            String tenant = resolveTenant(tenantId);
+            if (tenant != null) {
+                return toPage(invoiceRepository.findByTenantIdAndIdLessThanOrderByIdDesc(tenant, beforeId, limit),
+                        pageSize);
+            }
+            return toPage(invoiceRepository.findByIdLessThanOrderByIdDesc(beforeId, limit), pageSize);
         }
         String subject = SecurityUtil.getCurrentSubject();
-        if (subject == null || subject.isBlank()) return List.of();
-        return invoiceRepository.findByOwnerSubject(subject);
+        if (subject == null || subject.isBlank()) return InvoicePage.empty();
+        return toPage(invoiceRepository.findByOwnerSubjectAndIdLessThanOrderByIdDesc(subject, beforeId, limit),
+                pageSize);
     }
 
     // ─── GET BY ID ──────────────────────────────────────────────
+    // Lecture via le cache local ; le contrôle de propriété s'applique aussi aux entrées en cache
     public Optional<Invoice> getInvoiceById(Long id) {
-        return invoiceRepository.findById(id)
+        return invoiceCache.findById(id)
                 .filter(this::canAccess);
     }
 
     // ─── SEARCH BY CLIENT NAME ──────────────────────────────────
-    public List<Invoice> searchByClientName(String clientName) {
+    // Passe par l'index de trigrammes en mémoire ; la base ne sert que pour les requêtes
+    // trop courtes ou tant que l'index n'est pas chargé.
+    @Transactional(readOnly = true)
+    public InvoicePage searchByClientName(String clientName, String cursor, Integer size) {
+        long beforeId = InvoiceCursor.decode(cursor);
+        int pageSize = resolvePageSize(size);
+        if (clientNameIndex.canServe(clientName)) {
+            // Même périmètre que le filtre Hibernate du chemin en base : tenant du jeton
+            String tenant = SecurityUtil.getCurrentTenant();
+            if (SecurityUtil.isAdmin()) {
+                return toPageFromIds(clientNameIndex.searchAll(tenant, clientName, beforeId, pageSize + 1), pageSize);
+            }
+            String subject = SecurityUtil.getCurrentSubject();
+            if (subject == null || subject.isBlank()) return InvoicePage.empty();
+            return toPageFromIds(clientNameIndex.search(tenant, subject, clientName, beforeId, pageSize + 1),
+                    pageSize);
+        }
+        Limit limit = Limit.of(pageSize + 1);
         if (SecurityUtil.isAdmin()) {
-            return invoiceRepository.findByClientNameContainingIgnoreCase(clientName);
+            return toPage(invoiceRepository.findByClientNameContainingIgnoreCaseAndIdLessThanOrderByIdDesc(
+                    clientName, beforeId, limit), pageSize);
         }
         String subject = SecurityUtil.getCurrentSubject();
-        if (subject == null || subject.isBlank()) return List.of();
-        return invoiceRepository.findByOwnerSubjectAndClientNameContainingIgnoreCase(subject, clientName);
+        if (subject == null || subject.isBlank()) return InvoicePage.empty();
+        return toPage(invoiceRepository.findByOwnerSubjectAndClientNameContainingIgnoreCaseAndIdLessThanOrderByIdDesc(
+                subject, clientName, beforeId, limit), pageSize);
     }
 
     // ─── FILTER BY STATUS ───────────────────────────────────────
-    public List<Invoice> getByStatus(String status) {
+    @Transactional(readOnly = true)
+    public InvoicePage getByStatus(String tenantId, String status, String cursor, Integer size) {
+        long beforeId = InvoiceCursor.decode(cursor);
+        int pageSize = resolvePageSize(size);
+        Limit limit = Limit.of(pageSize + 1);
         if (SecurityUtil.isAdmin()) {
-            return invoiceRepository.findByStatus(status);
+            String tenant = resolveTenant(tenantId);
+            if (tenant != null) {
+                return toPage(invoiceRepository.findByTenantIdAndStatusAndIdLessThanOrderByIdDesc(
+                        tenant, status, beforeId, limit), pageSize);
+            }
+            return toPage(invoiceRepository.findByStatusAndIdLessThanOrderByIdDesc(status, beforeId, limit),
+                    pageSize);
         }
         String subject = SecurityUtil.getCurrentSubject();
-        if (subject == null || subject.isBlank()) return List.of();
-        return invoiceRepository.findByOwnerSubjectAndStatus(subject, status);
+        if (subject == null || subject.isBlank()) return InvoicePage.empty();
+        return toPage(invoiceRepository.findByOwnerSubjectAndStatusAndIdLessThanOrderByIdDesc(
+                subject, status, beforeId, limit), pageSize);
     }
 
     // ─── CREATE ──────────────────────────────────────────────────
+    @Transactional
     public Invoice createInvoice(InvoiceDTO dto) {
-        Invoice invoice = new Invoice();
-        invoice.setTenantId(dto.getTenantId());
-        invoice.setClientName(dto.getClientName());
-        invoice.setAmount(dto.getAmount());
-        invoice.setDescription(dto.getDescription());
-        invoice.setIssueDate(dto.getIssueDate() == null ? LocalDate.now() : dto.getIssueDate());
-        invoice.setDueDate(dto.getDueDate());
-        invoice.setStatus(dto.getStatus() == null ? "DRAFT" : dto.getStatus());
-        invoice.setOwnerSubject(SecurityUtil.getCurrentSubject());
-        return invoiceRepository.save(invoice);
+        String tenantError = validateTenant(dto);
+        if (tenantError != null) throw new IllegalArgumentException(tenantError);
+        Invoice invoice = toNewInvoice(dto, SecurityUtil.getCurrentSubject());
+        numberAllocator.assignNumber(invoice);
+        Invoice created = invoiceRepository.save(invoice);
+        invoiceOutbox.invoiceCreated(created);
+        summaryService.invoiceCreated(created);
+        versionService.bump(created.getOwnerSubject());
+        clientNameIndex.indexed(created);
+        return created;
+    }
+
+    // ─── CREATE EN LOT ───────────────────────────────────────────
+    // Les éléments invalides sont rejetés individuellement ; les autres sont insérés
+    // par lots JDBC de hibernate.jdbc.batch_size, avec vidage du contexte entre chaque lot.
+    @Transactional
+    public List<BatchItemResult> createInvoices(List<InvoiceDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new IllegalArgumentException("La liste de factures est vide");
+        }
+        if (dtos.size() > maxBatchItems) {
+            throw new IllegalArgumentException("Trop de factures dans le lot (maximum " + maxBatchItems + ")");
+        }
+        String owner = SecurityUtil.getCurrentSubject();
+        BatchItemResult[] results = new BatchItemResult[dtos.size()];
+        List<Integer> pendingIndexes = new ArrayList<>(jdbcBatchSize);
+        List<Invoice> pending = new ArrayList<>(jdbcBatchSize);
+
+        List<Integer> validIndexes = new ArrayList<>(dtos.size());
+        List<Invoice> invoices = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            String error = validateForCreate(dtos.get(i));
+            if (error != null) {
+                results[i] = BatchItemResult.rejected(i, error);
+                continue;
+            }
+            invoices.add(toNewInvoice(dtos.get(i), owner));
+            validIndexes.add(i);
+        }
+        // Numéros réservés pour tout le lot avant les INSERT : une plage par tenant et année
+        numberAllocator.assignNumbers(invoices);
+
+        for (int k = 0; k < invoices.size(); k++) {
+            Invoice invoice = invoices.get(k);
+            entityManager.persist(invoice);
+            invoiceOutbox.invoiceCreated(invoice);
+            summaryService.invoiceCreated(invoice);
+            pending.add(invoice);
+            pendingIndexes.add(validIndexes.get(k));
+            if (pending.size() == jdbcBatchSize) {
+                flushBatch(pending, pendingIndexes, results);
+            }
+        }
+        flushBatch(pending, pendingIndexes, results);
+        versionService.bump(owner);
+        return Arrays.asList(results);
     }
 
     // ─── UPDATE ──────────────────────────────────────────────────
+    @Transactional
     public Invoice updateInvoice(Long id, InvoiceDTO dto) {
         return invoiceRepository.findById(id).map(existing -> {
             ensureOwnershipOrAdmin(existing);
+            InvoiceSummaryService.Contribution before = InvoiceSummaryService.Contribution.of(existing);
             existing.setClientName(dto.getClientName());
             existing.setAmount(dto.getAmount());
             existing.setDescription(dto.getDescription());
             existing.setDueDate(dto.getDueDate());
             if (dto.getStatus() != null) existing.setStatus(dto.getStatus());
-            return invoiceRepository.save(existing);
+            // Flush avant l'outbox : l'événement et la réponse portent la version incrémentée
+            Invoice updated = invoiceRepository.saveAndFlush(existing);
+            invoiceOutbox.invoiceUpdated(updated);
+            summaryService.invoiceUpdated(before, updated);
+            versionService.bump(updated.getOwnerSubject());
+            clientNameIndex.indexed(updated);
+            invoiceCache.evict(id);
+            return updated;
         }).orElse(null);
     }
 
+    // ─── PATCH ───────────────────────────────────────────────────
+    // Un seul UPDATE des colonnes fournies, conditionné par la version lue par le client.
+    // L'état avant modification (résumé, outbox, index) vient du cache quand sa version est
+    // celle attendue : si l'UPDATE passe, c'est exactement la ligne modifiée.
+    @Transactional
+    public Invoice patchInvoice(Long id, InvoicePatch patch) {
+        validatePatch(patch);
+        Invoice before = invoiceCache.findById(id)
+                .filter(cached -> patch.getVersion().equals(cached.getVersion()))
+                .or(() -> invoiceRepository.findById(id).map(Invoice::copy))
+                .orElse(null);
+        if (before == null) return null;
+        ensureOwnershipOrAdmin(before);
+        if (!patch.getVersion().equals(before.getVersion())) throw versionConflict(id, patch.getVersion());
+        if (patchRow(id, before.getOwnerSubject(), patch) == 0) throw versionConflict(id, patch.getVersion());
+
+        Invoice patched = before.copy();
+        if (patch.getClientName() != null) patched.setClientName(patch.getClientName());
+        if (patch.getAmount() != null) patched.setAmount(patch.getAmount());
+        if (patch.getDescription() != null) patched.setDescription(patch.getDescription());
+        if (patch.getDueDate() != null) patched.setDueDate(patch.getDueDate());
+        if (patch.getStatus() != null) patched.setStatus(patch.getStatus());
+        patched.setVersion(before.getVersion() + 1);
+
+        invoiceOutbox.invoiceUpdated(patched);
+        summaryService.invoiceUpdated(InvoiceSummaryService.Contribution.of(before), patched);
+        versionService.bump(patched.getOwnerSubject());
+        if (patch.getClientName() != null) clientNameIndex.indexed(patched);
+        invoiceCache.evict(id);
+        return patched;
+    }
+
     // ─── DELETE ──────────────────────────────────────────────────
+    @Transactional
     public String deleteInvoice(Long id) {
         Optional<Invoice> existing = invoiceRepository.findById(id);
         if (existing.isPresent()) {
             ensureOwnershipOrAdmin(existing.get());
             invoiceRepository.deleteById(id);
+            invoiceOutbox.invoiceDeleted(id);
+            summaryService.invoiceDeleted(existing.get());
+            versionService.bump(existing.get().getOwnerSubject());
+            clientNameIndex.removed(id);
+            invoiceCache.evict(id);
             return "Facture supprimée avec succès";
         }
         return "Facture introuvable";
     }
 
+    // ─── TROUS DE NUMÉROTATION ───────────────────────────────────
+    // Administrateur : tenant du jeton ou celui demandé ; utilisateur : son tenant uniquement
+    public List<InvoiceNumberGap> findNumberGaps(String tenantId, Integer year) {
+        String tenant = SecurityUtil.isAdmin() ? resolveTenant(tenantId) : SecurityUtil.getCurrentTenant();
+        if (tenant == null) {
+            if (SecurityUtil.isAdmin()) throw new IllegalArgumentException("tenantId est obligatoire");
+            throw new AccessDeniedException("Accès refusé : aucun tenant associé à l'utilisateur");
+        }
+        return numberAllocator.findGaps(tenant, year == null ? LocalDate.now().getYear() : year);
+    }
+
     // ─── HELPERS ─────────────────────────────────────────────────
+    private Invoice toNewInvoice(InvoiceDTO dto, String ownerSubject) {
+        Invoice invoice = new Invoice();
+        String tenant = SecurityUtil.getCurrentTenant();
+        invoice.setTenantId(tenant != null ? tenant : dto.getTenantId());
+        invoice.setClientName(dto.getClientName());
+        invoice.setAmount(dto.getAmount());
+        invoice.setDescription(dto.getDescription());
+        invoice.setIssueDate(dto.getIssueDate() == null ? LocalDate.now() : dto.getIssueDate());
+        invoice.setDueDate(dto.getDueDate());
+        invoice.setStatus(dto.getStatus() == null ? "DRAFT" : dto.getStatus());
+        invoice.setOwnerSubject(ownerSubject);
+        return invoice;
+    }
+
+    private String validateForCreate(InvoiceDTO dto) {
+        if (dto == null) return "Facture vide";
+        String tenantError = validateTenant(dto);
+        if (tenantError != null) return tenantError;
+        if (dto.getClientName() == null || dto.getClientName().isBlank()) return "clientName est obligatoire";
+        if (dto.getAmount() == null) return "amount est obligatoire";
+        return null;
+    }
+
+    // Le tenant vient du jeton quand il en porte un ; le corps ne peut pas en désigner un autre
+    private String validateTenant(InvoiceDTO dto) {
+        String tenant = SecurityUtil.getCurrentTenant();
+        boolean given = dto.getTenantId() != null && !dto.getTenantId().isBlank();
+        if (tenant == null) return given ? null : "tenantId est obligatoire";
+        if (given && !tenant.equals(dto.getTenantId())) return "tenantId ne correspond pas au tenant de l'utilisateur";
+        return null;
+    }
+
+    // Tenant des listes administrateur : celui du jeton, sinon celui demandé (null = tous)
+    private String resolveTenant(String requested) {
+        String tenant = SecurityUtil.getCurrentTenant();
+        if (tenant != null) return tenant;
+        return requested == null || requested.isBlank() ? null : requested;
+    }
+
+    private void validatePatch(InvoicePatch patch) {
+        if (patch == null || patch.getVersion() == null) {
+            throw new IllegalArgumentException("version est obligatoire");
+        }
+        if (patch.getClientName() == null && patch.getAmount() == null && patch.getDescription() == null
+                && patch.getDueDate() == null && patch.getStatus() == null) {
+            throw new IllegalArgumentException("Aucun champ à modifier");
+        }
+        if (patch.getClientName() != null && patch.getClientName().isBlank()) {
+            throw new IllegalArgumentException("clientName ne peut pas être vide");
+        }
+        if (patch.getStatus() != null && patch.getStatus().isBlank()) {
+            throw new IllegalArgumentException("status ne peut pas être vide");
+        }
+    }
+
+    // UPDATE ... SET <colonnes fournies> WHERE id = ? AND owner_subject = ? AND version = ?
+    private int patchRow(Long id, String ownerSubject, InvoicePatch patch) {
+        StringBuilder sql = new StringBuilder("UPDATE invoices SET version = version + 1");
+        List<Object> args = new ArrayList<>();
+        if (patch.getClientName() != null) {
+            sql.append(", client_name = ?");
+            args.add(patch.getClientName());
+        }
+        if (patch.getAmount() != null) {
+            sql.append(", amount = ?");
+            args.add(patch.getAmount());
+        }
+        if (patch.getDescription() != null) {
+            sql.append(", description = ?");
+            args.add(patch.getDescription());
+        }
+        if (patch.getDueDate() != null) {
+            sql.append(", due_date = ?");
+            args.add(Date.valueOf(patch.getDueDate()));
+        }
+        if (patch.getStatus() != null) {
+            sql.append(", status = ?");
+            args.add(patch.getStatus());
+        }
+        sql.append(" WHERE id = ? AND version = ?");
+        args.add(id);
+        args.add(patch.getVersion());
+        if (ownerSubject == null) {
+            sql.append(" AND owner_subject IS NULL");
+        } else {
+            sql.append(" AND owner_subject = ?");
+            args.add(ownerSubject);
+        }
+        return jdbcTemplate.update(sql.toString(), args.toArray());
+    }
+
+    private static OptimisticLockingFailureException versionConflict(Long id, Long expectedVersion) {
+        return new OptimisticLockingFailureException(
+                "La facture " + id + " a été modifiée entre-temps (version " + expectedVersion + " périmée)");
+    }
+
+    private void flushBatch(List<Invoice> pending, List<Integer> pendingIndexes, BatchItemResult[] results) {
+        if (pending.isEmpty()) return;
+        entityManager.flush();
+        for (int j = 0; j < pending.size(); j++) {
+            results[pendingIndexes.get(j)] = BatchItemResult.created(pendingIndexes.get(j), pending.get(j).getId());
+            clientNameIndex.indexed(pending.get(j));
+        }
+        entityManager.clear();
+        pending.clear();
+        pendingIndexes.clear();
+    }
+
     private void ensureOwnershipOrAdmin(Invoice invoice) {
         if (!canAccess(invoice)) {
             throw new AccessDeniedException("Accès refusé : vous ne pouvez modifier que vos propres factures");
         }
     }
 
+    private int resolvePageSize(Integer size) {
+        if (size == null || size <= 0) return defaultPageSize;
+        return Math.min(size, maxPageSize);
+    }
+
+    // On lit une ligne de plus que la page pour savoir s'il existe une page suivante
+    private InvoicePage toPage(List<InvoiceView> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new InvoicePage(rows, null);
+        }
+        List<InvoiceView> items = rows.subList(0, pageSize);
+        return new InvoicePage(items, InvoiceCursor.encode(items.get(pageSize - 1).id()));
+    }
+
+    // Page construite à partir d'ids déjà triés : seules ces lignes sont lues en base.
+    // Le curseur suit les ids de l'index, même si une ligne a disparu entre-temps.
+    private InvoicePage toPageFromIds(List<Long> ids, int pageSize) {
+        if (ids.isEmpty()) return InvoicePage.empty();
+        List<Long> pageIds = ids.size() > pageSize ? ids.subList(0, pageSize) : ids;
+        Map<Long, InvoiceView> byId = invoiceRepository.findByIdIn(pageIds).stream()
+                .filter(view -> canAccess(view.tenantId(), view.ownerSubject()))
+                .collect(Collectors.toMap(InvoiceView::id, Function.identity()));
+        List<InvoiceView> items = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            InvoiceView invoice = byId.get(id);
+            if (invoice != null) items.add(invoice);
+        }
+        String nextCursor = ids.size() > pageSize ? InvoiceCursor.encode(pageIds.get(pageSize - 1)) : null;
+        return new InvoicePage(items, nextCursor);
+    }
+
     private boolean canAccess(Invoice invoice) {
+        return canAccess(invoice.getTenantId(), invoice.getOwnerSubject());
+    }
+
+    // Le filtre Hibernate ne s'applique pas aux lectures par id (cache, findById) : tenant vérifié ici
+    private boolean canAccess(String tenantId, String ownerSubject) {
+        String tenant = SecurityUtil.getCurrentTenant();
+        if (tenant != null && !tenant.equals(tenantId)) return false;
         if (SecurityUtil.isAdmin()) return true;
         String subject = SecurityUtil.getCurrentSubject();
-        return subject != null && subject.equals(invoice.getOwnerSubject());
+        return subject != null && subject.equals(ownerSubject);
     }
 }
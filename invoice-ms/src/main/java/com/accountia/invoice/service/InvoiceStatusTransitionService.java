@@ -0,0 +1,196 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.cache.InvoiceCache;
+import com.accountia.invoice.dto.BatchItemResult;
+import com.accountia.invoice.dto.InvoiceStatusTransition;
+import com.accountia.invoice.messaging.InvoiceOutbox;
+import com.accountia.invoice.util.SecurityUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transitions de statut en lot (ex. rapprochement des paiements : des milliers de factures PAID).
+ *
+ * Transitions autorisées : DRAFT → SENT, SENT (ou OVERDUE) → PAID, tout statut → CANCELLED.
+ * Les ids sont traités par tranches, chacune dans sa propre transaction : lecture verrouillante
+ * des lignes du propriétaire, UPDATE ensembliste {@code WHERE id IN (...) AND status IN (...)},
+ * deltas du résumé et un seul événement outbox pour la tranche.
+ */
+@Service
+public class InvoiceStatusTransitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceStatusTransitionService.class);
+
+    // Statut cible -> statuts d'origine autorisés
+    private static final Map<String, Set<String>> ALLOWED_SOURCES = Map.of(
+            "SENT", Set.of("DRAFT"),
+            "PAID", Set.of("SENT", "OVERDUE"),
+            "CANCELLED", Set.of("DRAFT", "SENT", "OVERDUE", "PAID"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvoiceOutbox invoiceOutbox;
+    private final InvoiceSummaryService summaryService;
+    private final InvoiceVersionService versionService;
+    private final InvoiceCache invoiceCache;
+    private final int chunkSize;
+    private final int maxItems;
+
+    public InvoiceStatusTransitionService(JdbcTemplate jdbcTemplate,
+                                          TransactionTemplate transactionTemplate,
+                                          InvoiceOutbox invoiceOutbox,
+                                          InvoiceSummaryService summaryService,
+                                          InvoiceVersionService versionService,
+                                          InvoiceCache invoiceCache,
+                                          @Value("${invoice.transition.chunk-size:500}") int chunkSize,
+                                          @Value("${invoice.batch.max-items:5000}") int maxItems) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.invoiceOutbox = invoiceOutbox;
+        this.summaryService = summaryService;
+        this.versionService = versionService;
+        this.invoiceCache = invoiceCache;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Applique la transition et rend un résultat par élément de la requête, dans l'ordre.
+     * Une facture absente ou appartenant à un autre propriétaire est rejetée comme introuvable.
+     */
+    public List<BatchItemResult> transition(InvoiceStatusTransition request) {
+        String target = validate(request);
+        String owner = SecurityUtil.isAdmin() ? null : SecurityUtil.getCurrentSubject();
+        if (owner == null && !SecurityUtil.isAdmin()) {
+            throw new IllegalArgumentException("Utilisateur non identifié");
+        }
+        String tenant = SecurityUtil.getCurrentTenant();
+
+        List<Long> ids = new ArrayList<>(new LinkedHashSet<>(request.getIds()));
+        Map<Long, String> errors = new HashMap<>();
+        long start = System.currentTimeMillis();
+        int updated = 0;
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + chunkSize));
+            try {
+                Integer rows = transactionTemplate.execute(status -> processChunk(chunk, target, tenant, owner, errors));
+                updated += rows == null ? 0 : rows;
+            } catch (RuntimeException e) {
+                // Tranche annulée : aucune de ses factures n'a changé, les tranches précédentes restent validées
+                log.error("Transition vers {} : échec de la tranche {}..{} : {}",
+                        target, chunk.get(0), chunk.get(chunk.size() - 1), e.getMessage());
+                chunk.forEach(id -> errors.put(id, "Échec de la mise à jour, à réessayer"));
+            }
+        }
+        log.info("Transition vers {} : {} factures modifiées sur {} demandées en {} ms",
+                target, updated, ids.size(), System.currentTimeMillis() - start);
+
+        List<BatchItemResult> results = new ArrayList<>(request.getIds().size());
+        for (int i = 0; i < request.getIds().size(); i++) {
+            Long id = request.getIds().get(i);
+            String error = errors.get(id);
+            results.add(error == null ? BatchItemResult.updated(i, id) : BatchItemResult.rejected(i, id, error));
+        }
+        return results;
+    }
+
+    private int processChunk(List<Long> chunk, String target, String tenant, String owner,
+                             Map<Long, String> errors) {
+        Set<String> sources = ALLOWED_SOURCES.get(target);
+        String idList = placeholders(chunk.size());
+        // Requêtes SQL directes : le filtre de tenant Hibernate ne s'applique pas, on l'ajoute ici
+        String scopeClause = (tenant == null ? "" : " AND tenant_id = ?")
+                + (owner == null ? "" : " AND owner_subject = ?");
+        List<Object> scopeArgs = new ArrayList<>(2);
+        if (tenant != null) scopeArgs.add(tenant);
+        if (owner != null) scopeArgs.add(owner);
+
+        List<Object> lockArgs = new ArrayList<>(chunk);
+        lockArgs.addAll(scopeArgs);
+        Set<Long> found = new HashSet<>();
+        List<Long> eligible = new ArrayList<>();
+        List<Long> versions = new ArrayList<>();
+        Set<String> owners = new HashSet<>();
+        List<InvoiceSummaryService.Contribution[]> contributions = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, owner_subject, status, amount, due_date, version, tenant_id FROM invoices"
+                + " WHERE id IN (" + idList + ")" + scopeClause + " FOR UPDATE", rs -> {
+            long id = rs.getLong(1);
+            String rowOwner = rs.getString(2) == null ? "" : rs.getString(2);
+            String status = rs.getString(3);
+            double amount = rs.getDouble(4);
+            Date dueDate = rs.getDate(5);
+            String rowTenant = rs.getString(7);
+            found.add(id);
+            if (!sources.contains(status)) {
+                errors.put(id, "Transition " + status + " → " + target + " interdite");
+                return;
+            }
+            eligible.add(id);
+            versions.add(rs.getLong(6) + 1);
+            owners.add(rowOwner);
+            contributions.add(new InvoiceSummaryService.Contribution[]{
+                    new InvoiceSummaryService.Contribution(rowTenant, rowOwner, status, amount,
+                            InvoiceSummaryService.isOverdue(status, dueDate == null ? null : dueDate.toLocalDate())),
+                    new InvoiceSummaryService.Contribution(rowTenant, rowOwner, target, amount,
+                            InvoiceSummaryService.isOverdue(target, dueDate == null ? null : dueDate.toLocalDate()))});
+        }, lockArgs.toArray());
+        for (Long id : chunk) {
+            if (!found.contains(id)) errors.put(id, "Facture introuvable");
+        }
+        if (eligible.isEmpty()) return 0;
+
+        // Les lignes sont verrouillées : l'UPDATE touche exactement les factures éligibles
+        List<Object> updateArgs = new ArrayList<>();
+        updateArgs.add(target);
+        updateArgs.addAll(eligible);
+        updateArgs.addAll(sources);
+        updateArgs.addAll(scopeArgs);
+        int rows = jdbcTemplate.update("UPDATE invoices SET status = ?, version = version + 1"
+                + " WHERE id IN (" + placeholders(eligible.size()) + ")"
+                + " AND status IN (" + placeholders(sources.size()) + ")" + scopeClause, updateArgs.toArray());
+
+        for (InvoiceSummaryService.Contribution[] c : contributions) {
+            summaryService.contributionChanged(c[0], c[1]);
+        }
+        invoiceOutbox.invoicesStatusChanged(eligible, versions, target);
+        versionService.bumpAll(owners);
+        invoiceCache.evict(eligible);
+        return rows;
+    }
+
+    private String validate(InvoiceStatusTransition request) {
+        if (request == null || request.getIds() == null || request.getIds().isEmpty()) {
+            throw new IllegalArgumentException("La liste d'ids est vide");
+        }
+        if (request.getIds().size() > maxItems) {
+            throw new IllegalArgumentException("Trop de factures dans le lot (maximum " + maxItems + ")");
+        }
+        if (request.getIds().contains(null)) {
+            throw new IllegalArgumentException("La liste d'ids contient une valeur nulle");
+        }
+        String target = request.getStatus();
+        if (target == null || !ALLOWED_SOURCES.containsKey(target)) {
+            throw new IllegalArgumentException("Statut cible invalide : " + target
+                    + " (attendu : " + String.join(", ", ALLOWED_SOURCES.keySet()) + ")");
+        }
+        return target;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.accountia.invoice.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reconstruit {@code invoice_tenant_owner_summary} depuis {@code invoices} :
+ * au démarrage si le modèle est vide (première mise en service), puis chaque nuit
+ * pour recaler les compteurs de retard, qui dépendent de la date du jour.
+ */
+@Component
+public class InvoiceSummaryRebuildJob {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceSummaryRebuildJob.class);
+
+    private final InvoiceSummaryService summaryService;
+
+    public InvoiceSummaryRebuildJob(InvoiceSummaryService summaryService) {
+        this.summaryService = summaryService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (summaryService.isEmpty()) {
+            log.info("Résumé des factures vide : reconstruction initiale");
+            summaryService.rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${invoice.summary.rebuild-cron:0 5 0 * * *}")
+    public void rebuild() {
+        summaryService.rebuild();
+    }
+}
@@ -0,0 +1,205 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.dto.InvoiceStatusSummary;
+import com.accountia.invoice.model.Invoice;
+import com.accountia.invoice.model.InvoiceOwnerSummary;
+import com.accountia.invoice.repository.InvoiceOwnerSummaryRepository;
+import com.accountia.invoice.util.SecurityUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Modèle de lecture {@link InvoiceOwnerSummary} : nombre, montant total et nombre
+ * de factures en retard par (tenant, propriétaire, statut).
+ *
+ * Les écritures de facture enregistrent leur contribution (avant / après) ; les deltas sont
+ * cumulés pendant la transaction et appliqués juste avant le commit, en un lot d'upserts
+ * triés par clé (ordre de verrouillage stable entre transactions concurrentes).
+ * Le retard dépend de la date du jour : la reconstruction quotidienne recale ces compteurs.
+ */
+@Service
+public class InvoiceSummaryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceSummaryService.class);
+
+    private static final String UPSERT_SQL = "INSERT INTO " + InvoiceOwnerSummary.TABLE
+            + " (tenant_id, owner_subject, status, invoice_count, total_amount, overdue_count, updated_at)"
+            + " VALUES (?, ?, ?, ?, ?, ?, ?)"
+            + " ON DUPLICATE KEY UPDATE invoice_count = invoice_count + VALUES(invoice_count),"
+            + " total_amount = total_amount + VALUES(total_amount),"
+            + " overdue_count = overdue_count + VALUES(overdue_count),"
+            + " updated_at = VALUES(updated_at)";
+
+    private static final String REBUILD_SQL = "INSERT INTO " + InvoiceOwnerSummary.TABLE
+            + " (tenant_id, owner_subject, status, invoice_count, total_amount, overdue_count, updated_at)"
+            + " SELECT tenant_id, COALESCE(owner_subject, ''), status, COUNT(*), COALESCE(SUM(amount), 0),"
+            + " SUM(CASE WHEN status = 'OVERDUE' OR (status = 'SENT' AND due_date < ?) THEN 1 ELSE 0 END), ?"
+            + " FROM invoices GROUP BY tenant_id, COALESCE(owner_subject, ''), status";
+
+    /**
+     * Part d'une facture dans le modèle ; null pour « aucune » (avant une création, après une suppression).
+     */
+    public record Contribution(String tenantId, String ownerSubject, String status, double amount,
+                               boolean overdue) {
+
+        public static Contribution of(Invoice invoice) {
+            return new Contribution(
+                    invoice.getTenantId(),
+                    invoice.getOwnerSubject() == null ? "" : invoice.getOwnerSubject(),
+                    invoice.getStatus(),
+                    invoice.getAmount() == null ? 0 : invoice.getAmount(),
+                    isOverdue(invoice.getStatus(), invoice.getDueDate()));
+        }
+    }
+
+    private record Key(String tenantId, String ownerSubject, String status) implements Comparable<Key> {
+        private static final Comparator<Key> ORDER = Comparator.comparing(Key::tenantId)
+                .thenComparing(Key::ownerSubject).thenComparing(Key::status);
+
+        @Override
+        public int compareTo(Key other) {
+            return ORDER.compare(this, other);
+        }
+    }
+
+    private static final class Delta {
+        long count;
+        double amount;
+        long overdue;
+
+        boolean isZero() {
+            return count == 0 && amount == 0 && overdue == 0;
+        }
+    }
+
+    private final InvoiceOwnerSummaryRepository summaryRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public InvoiceSummaryService(InvoiceOwnerSummaryRepository summaryRepository, JdbcTemplate jdbcTemplate) {
+        this.summaryRepository = summaryRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // ─── LECTURE ─────────────────────────────────────────────────
+    /**
+     * Administrateur : tenant du jeton, sinon celui demandé (null = tous les tenants).
+     * Utilisateur : ses propres factures, dans le tenant du jeton.
+     */
+    @Transactional(readOnly = true)
+    public List<InvoiceStatusSummary> getSummary(String requestedTenant) {
+        String tenant = SecurityUtil.getCurrentTenant();
+        if (SecurityUtil.isAdmin()) {
+            if (tenant == null && requestedTenant != null && !requestedTenant.isBlank()) tenant = requestedTenant;
+            return summaryRepository.sumByStatus(tenant, null);
+        }
+        String subject = SecurityUtil.getCurrentSubject();
+        if (subject == null || subject.isBlank()) return List.of();
+        return summaryRepository.sumByStatus(tenant, subject);
+    }
+
+    // ─── DELTAS ──────────────────────────────────────────────────
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invoiceCreated(Invoice invoice) {
+        apply(null, Contribution.of(invoice));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invoiceUpdated(Contribution before, Invoice after) {
+        apply(before, Contribution.of(after));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void invoiceDeleted(Invoice invoice) {
+        apply(Contribution.of(invoice), null);
+    }
+
+    // Écritures ensemblistes (UPDATE sans entité) : l'appelant fournit les contributions
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void contributionChanged(Contribution before, Contribution after) {
+        apply(before, after);
+    }
+
+    private void apply(Contribution before, Contribution after) {
+        Map<Key, Delta> deltas = pendingDeltas();
+        if (before != null) add(deltas, before, -1);
+        if (after != null) add(deltas, after, 1);
+    }
+
+    private static void add(Map<Key, Delta> deltas, Contribution c, int sign) {
+        Delta delta = deltas.computeIfAbsent(new Key(c.tenantId(), c.ownerSubject(), c.status()), k -> new Delta());
+        delta.count += sign;
+        delta.amount += sign * c.amount();
+        if (c.overdue()) delta.overdue += sign;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Key, Delta> pendingDeltas() {
+        Map<Key, Delta> deltas = (Map<Key, Delta>) TransactionSynchronizationManager.getResource(this);
+        if (deltas != null) return deltas;
+        Map<Key, Delta> created = new TreeMap<>();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                writeDeltas(created);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(InvoiceSummaryService.this);
+            }
+        });
+        return created;
+    }
+
+    private void writeDeltas(Map<Key, Delta> deltas) {
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            if (!delta.isZero()) {
+                rows.add(new Object[]{key.tenantId(), key.ownerSubject(), key.status(),
+                        delta.count, delta.amount, delta.overdue, now});
+            }
+        });
+        if (!rows.isEmpty()) jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    // ─── RECONSTRUCTION ──────────────────────────────────────────
+    // Recalcule tout le modèle en une transaction depuis la table invoices
+    @Transactional
+    public int rebuild() {
+        long start = System.currentTimeMillis();
+        jdbcTemplate.update("DELETE FROM " + InvoiceOwnerSummary.TABLE);
+        int rows = jdbcTemplate.update(REBUILD_SQL, Date.valueOf(LocalDate.now()),
+                Timestamp.from(Instant.now()));
+        log.info("Résumé des factures reconstruit : {} lignes en {} ms", rows, System.currentTimeMillis() - start);
+        return rows;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isEmpty() {
+        return summaryRepository.count() == 0;
+    }
+
+    // OVERDUE est posé par OverdueInvoiceJob ; d'ici là une facture SENT échue compte déjà
+    static boolean isOverdue(String status, LocalDate dueDate) {
+        if ("OVERDUE".equals(status)) return true;
+        return "SENT".equals(status) && dueDate != null && dueDate.isBefore(LocalDate.now());
+    }
+}
@@ -0,0 +1,70 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.model.InvoiceOwnerVersion;
+import com.accountia.invoice.repository.InvoiceOwnerVersionRepository;
+import com.accountia.invoice.util.SecurityUtil;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * ETag des lectures de factures, dérivé d'un compteur de version par propriétaire.
+ *
+ * Les écritures incrémentent le compteur du propriétaire de la facture dans leur transaction ;
+ * une requête dont le If-None-Match correspond reçoit un 304 après une simple lecture par clé
+ * primaire, sans requête sur invoices ni sérialisation.
+ */
+@Service
+public class InvoiceVersionService {
+
+    private static final String BUMP_SQL = "INSERT INTO " + InvoiceOwnerVersion.TABLE
+            + " (owner_subject, version) VALUES (?, 1) ON DUPLICATE KEY UPDATE version = version + 1";
+
+    private final InvoiceOwnerVersionRepository versionRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public InvoiceVersionService(InvoiceOwnerVersionRepository versionRepository, JdbcTemplate jdbcTemplate) {
+        this.versionRepository = versionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Lit l'ETag puis les données ({@code read} reçoit l'ETag, null si l'utilisateur n'est pas
+     * identifié) dans une même transaction en lecture seule : les deux viennent de la même source,
+     * primaire ou réplique, et du même instantané InnoDB. Une réplique en retard rend donc un ETag
+     * aussi ancien que ses données, jamais un ETag récent sur des lignes périmées.
+     */
+    @Transactional(readOnly = true)
+    public <T> T readWithETag(Function<String, T> read) {
+        return read.apply(currentETag());
+    }
+
+    /**
+     * ETag fort de l'utilisateur courant, ou null s'il n'est pas identifié.
+     * À lire avant les données, dans la même transaction (voir {@link #readWithETag}).
+     */
+    public String currentETag() {
+        if (SecurityUtil.isAdmin()) {
+            return "\"a" + versionRepository.sumVersions() + "\"";
+        }
+        String subject = SecurityUtil.getCurrentSubject();
+        if (subject == null || subject.isBlank()) return null;
+        long version = versionRepository.findById(subject).map(InvoiceOwnerVersion::getVersion).orElse(0L);
+        return "\"o" + version + "\"";
+    }
+
+    public void bump(String ownerSubject) {
+        jdbcTemplate.update(BUMP_SQL, ownerSubject == null ? "" : ownerSubject);
+    }
+
+    // Ordre de clé stable : deux écritures en lot ne se verrouillent pas en sens inverse
+    public void bumpAll(Collection<String> ownerSubjects) {
+        TreeSet<String> owners = new TreeSet<>();
+        for (String owner : ownerSubjects) owners.add(owner == null ? "" : owner);
+        for (String owner : owners) jdbcTemplate.update(BUMP_SQL, owner);
+    }
+}
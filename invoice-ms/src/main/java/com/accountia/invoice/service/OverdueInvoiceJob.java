@@ -0,0 +1,158 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.cache.InvoiceCache;
+import com.accountia.invoice.messaging.InvoiceOutbox;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Passe en OVERDUE les factures SENT dont l'échéance est dépassée.
+ *
+ * Les bornes d'ids du travail sont lues sur l'index (status, due_date), puis l'intervalle est
+ * découpé en tranches d'ids traitées en parallèle par un pool borné. Chaque tranche est une
+ * transaction courte : lecture verrouillante des lignes concernées (index (status, id)),
+ * UPDATE ensembliste sur la tranche, deltas du résumé et un seul événement outbox pour la tranche.
+ * Relancer le job, ou le lancer sur deux instances, ne change pas le résultat.
+ * Planifié après la reconstruction du résumé, qui a déjà compté ces factures SENT comme en retard.
+ */
+@Component
+public class OverdueInvoiceJob {
+
+    private static final Logger log = LoggerFactory.getLogger(OverdueInvoiceJob.class);
+
+    private static final String BOUNDS_SQL =
+            "SELECT MIN(id), MAX(id) FROM invoices WHERE status = 'SENT' AND due_date < ?";
+
+    private static final String LOCK_CHUNK_SQL =
+            "SELECT id, owner_subject, amount, version, tenant_id FROM invoices"
+                    + " WHERE status = 'SENT' AND id BETWEEN ? AND ? AND due_date < ? FOR UPDATE";
+
+    private static final String UPDATE_CHUNK_SQL =
+            "UPDATE invoices SET status = 'OVERDUE', version = version + 1"
+                    + " WHERE status = 'SENT' AND id BETWEEN ? AND ? AND due_date < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InvoiceOutbox invoiceOutbox;
+    private final InvoiceSummaryService summaryService;
+    private final InvoiceVersionService versionService;
+    private final InvoiceCache invoiceCache;
+    private final int workers;
+    private final long chunkSize;
+
+    public OverdueInvoiceJob(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             InvoiceOutbox invoiceOutbox,
+                             InvoiceSummaryService summaryService,
+                             InvoiceVersionService versionService,
+                             InvoiceCache invoiceCache,
+                             @Value("${invoice.overdue.workers:4}") int workers,
+                             @Value("${invoice.overdue.chunk-size:5000}") long chunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.invoiceOutbox = invoiceOutbox;
+        this.summaryService = summaryService;
+        this.versionService = versionService;
+        this.invoiceCache = invoiceCache;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+    }
+
+    @Scheduled(cron = "${invoice.overdue.cron:0 10 0 * * *}")
+    public void run() {
+        markOverdue(LocalDate.now());
+    }
+
+    public int markOverdue(LocalDate today) {
+        long start = System.currentTimeMillis();
+        Date cutoff = Date.valueOf(today);
+        long[] bounds = jdbcTemplate.queryForObject(BOUNDS_SQL,
+                (rs, rowNum) -> rs.getObject(1) == null ? null : new long[]{rs.getLong(1), rs.getLong(2)}, cutoff);
+        if (bounds == null) {
+            log.info("Factures en retard : aucune à traiter");
+            return 0;
+        }
+        long minId = bounds[0];
+        long maxId = bounds[1];
+
+        AtomicInteger updated = new AtomicInteger();
+        AtomicInteger failedChunks = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "overdue-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> chunks = new ArrayList<>();
+            for (long from = minId; from <= maxId; from += chunkSize) {
+                long lo = from;
+                long hi = Math.min(maxId, from + chunkSize - 1);
+                chunks.add(pool.submit(() -> {
+                    try {
+                        updated.addAndGet(processChunk(lo, hi, cutoff));
+                    } catch (RuntimeException e) {
+                        failedChunks.incrementAndGet();
+                        log.error("Factures en retard : échec de la tranche [{}, {}] : {}", lo, hi, e.getMessage());
+                    }
+                }));
+            }
+            for (Future<?> chunk : chunks) {
+                chunk.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Factures en retard : job interrompu : {}", e.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Factures en retard : {} passées en OVERDUE (ids {}..{}, {} tranches en échec) en {} ms",
+                updated.get(), minId, maxId, failedChunks.get(), System.currentTimeMillis() - start);
+        return updated.get();
+    }
+
+    private int processChunk(long lo, long hi, Date cutoff) {
+        Integer count = transactionTemplate.execute(status -> {
+            List<Long> ids = new ArrayList<>();
+            List<Long> versions = new ArrayList<>();
+            Set<String> owners = new HashSet<>();
+            jdbcTemplate.query(LOCK_CHUNK_SQL, rs -> {
+                long id = rs.getLong(1);
+                String owner = rs.getString(2);
+                double amount = rs.getDouble(3);
+                String tenant = rs.getString(5);
+                ids.add(id);
+                // Lignes verrouillées : l'UPDATE qui suit les passe exactement à version + 1
+                versions.add(rs.getLong(4) + 1);
+                owners.add(owner);
+                summaryService.contributionChanged(
+                        new InvoiceSummaryService.Contribution(tenant, owner == null ? "" : owner, "SENT", amount, true),
+                        new InvoiceSummaryService.Contribution(tenant, owner == null ? "" : owner, "OVERDUE", amount,
+                                true));
+            }, lo, hi, cutoff);
+            if (ids.isEmpty()) return 0;
+            int rows = jdbcTemplate.update(UPDATE_CHUNK_SQL, lo, hi, cutoff);
+            invoiceOutbox.invoicesOverdue(ids, versions);
+            versionService.bumpAll(owners);
+            invoiceCache.evict(ids);
+            return rows;
+        });
+        return count == null ? 0 : count;
+    }
+}
@@ -0,0 +1,207 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.messaging.InvoiceOutbox;
+import com.accountia.invoice.model.Invoice;
+import com.accountia.invoice.model.RecurringInvoiceSchedule;
+import com.accountia.invoice.search.ClientNameIndex;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Génère les factures des modèles récurrents arrivés à échéance.
+ *
+ * Un pool borné de workers réclame les modèles dus par tranches avec
+ * {@code SELECT ... FOR UPDATE SKIP LOCKED} : les workers, et les instances qui lancent le job en
+ * même temps, se partagent les modèles sans s'attendre. Chaque tranche est une transaction :
+ * factures insérées par lots JDBC (numéros réservés en un bloc), un événement outbox
+ * {@code invoice.created} par facture (avec son contenu, comme une création unitaire, pour que les
+ * consommateurs comme les statistiques de business-ms les comptent), et avancement de
+ * {@code next_run_date} des modèles traités. Cet avancement est le point de reprise :
+ * après un arrêt, seules les tranches non validées sont rejouées. Un modèle en retard de plusieurs
+ * périodes reçoit une facture par période, datée de la période.
+ */
+@Component
+public class RecurringInvoiceJob {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringInvoiceJob.class);
+
+    private static final String CLAIM_SQL =
+            "SELECT id, tenant_id, owner_subject, client_name, amount, description, invoice_status,"
+                    + " interval_months, day_of_month, payment_terms_days, next_run_date"
+                    + " FROM " + RecurringInvoiceSchedule.TABLE
+                    + " WHERE active = TRUE AND next_run_date <= ?"
+                    + " ORDER BY next_run_date, id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String ADVANCE_SQL =
+            "UPDATE " + RecurringInvoiceSchedule.TABLE
+                    + " SET next_run_date = ?, last_run_date = ?, generated_count = generated_count + 1 WHERE id = ?";
+
+    // Ligne réclamée : de quoi construire la facture de la période et calculer la suivante
+    private record DueSchedule(long id, String tenantId, String ownerSubject, String clientName, double amount,
+                               String description, String invoiceStatus, int intervalMonths, int dayOfMonth,
+                               int paymentTermsDays, LocalDate runDate) {
+
+        Invoice toInvoice() {
+            Invoice invoice = new Invoice();
+            invoice.setTenantId(tenantId);
+            invoice.setOwnerSubject(ownerSubject);
+            invoice.setClientName(clientName);
+            invoice.setAmount(amount);
+            invoice.setDescription(description);
+            invoice.setStatus(invoiceStatus);
+            invoice.setIssueDate(runDate);
+            invoice.setDueDate(runDate.plusDays(paymentTermsDays));
+            return invoice;
+        }
+
+        LocalDate nextRunDate() {
+            return RecurringInvoiceSchedule.nextRunDate(runDate, intervalMonths, dayOfMonth);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final InvoiceNumberAllocator numberAllocator;
+    private final InvoiceOutbox invoiceOutbox;
+    private final InvoiceSummaryService summaryService;
+    private final InvoiceVersionService versionService;
+    private final ClientNameIndex clientNameIndex;
+    private final int workers;
+    private final int chunkSize;
+    private final int jdbcBatchSize;
+
+    public RecurringInvoiceJob(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               EntityManager entityManager,
+                               InvoiceNumberAllocator numberAllocator,
+                               InvoiceOutbox invoiceOutbox,
+                               InvoiceSummaryService summaryService,
+                               InvoiceVersionService versionService,
+                               ClientNameIndex clientNameIndex,
+                               @Value("${invoice.recurring.workers:4}") int workers,
+                               @Value("${invoice.recurring.chunk-size:500}") int chunkSize,
+                               @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int jdbcBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
+        this.numberAllocator = numberAllocator;
+        this.invoiceOutbox = invoiceOutbox;
+        this.summaryService = summaryService;
+        this.versionService = versionService;
+        this.clientNameIndex = clientNameIndex;
+        this.workers = workers;
+        this.chunkSize = chunkSize;
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    @Scheduled(cron = "${invoice.recurring.cron:0 0 1 * * *}")
+    public void run() {
+        generate(LocalDate.now());
+    }
+
+    public int generate(LocalDate today) {
+        long start = System.currentTimeMillis();
+        AtomicInteger generated = new AtomicInteger();
+        AtomicInteger chunks = new AtomicInteger();
+        AtomicInteger failedWorkers = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "recurring-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> running = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                running.add(pool.submit(() -> {
+                    // Chaque worker réclame des tranches jusqu'à ce qu'il n'y ait plus rien à prendre
+                    while (!Thread.currentThread().isInterrupted()) {
+                        int count;
+                        try {
+                            count = processChunk(today);
+                        } catch (RuntimeException e) {
+                            // Tranche annulée : ses modèles restent dus et seront repris au prochain passage
+                            failedWorkers.incrementAndGet();
+                            log.error("Factures récurrentes : échec d'une tranche, worker arrêté : {}", e.getMessage());
+                            return;
+                        }
+                        if (count == 0) return;
+                        generated.addAndGet(count);
+                        if (chunks.incrementAndGet() % 20 == 0) {
+                            log.info("Factures récurrentes : {} générées en {} tranches", generated.get(), chunks.get());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : running) {
+                worker.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Factures récurrentes : job interrompu : {}", e.getMessage());
+        } finally {
+            pool.shutdownNow();
+        }
+        log.info("Factures récurrentes : {} générées pour le {} ({} tranches, {} workers en échec) en {} ms",
+                generated.get(), today, chunks.get(), failedWorkers.get(), System.currentTimeMillis() - start);
+        return generated.get();
+    }
+
+    private int processChunk(LocalDate today) {
+        Integer count = transactionTemplate.execute(status -> {
+            List<DueSchedule> due = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> new DueSchedule(
+                    rs.getLong(1), rs.getString(2), rs.getString(3), rs.getString(4), rs.getDouble(5),
+                    rs.getString(6), rs.getString(7), rs.getInt(8), rs.getInt(9), rs.getInt(10),
+                    rs.getDate(11).toLocalDate()), Date.valueOf(today), chunkSize);
+            if (due.isEmpty()) return 0;
+
+            List<Invoice> invoices = new ArrayList<>(due.size());
+            for (DueSchedule schedule : due) invoices.add(schedule.toInvoice());
+            numberAllocator.assignNumbers(invoices);
+
+            Set<String> owners = new HashSet<>();
+            for (int i = 0; i < invoices.size(); i++) {
+                Invoice invoice = invoices.get(i);
+                entityManager.persist(invoice);
+                summaryService.invoiceCreated(invoice);
+                invoiceOutbox.invoiceCreated(invoice);
+                owners.add(invoice.getOwnerSubject());
+                if ((i + 1) % jdbcBatchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+
+            List<Object[]> advances = new ArrayList<>(due.size());
+            for (DueSchedule schedule : due) {
+                advances.add(new Object[]{Date.valueOf(schedule.nextRunDate()), Date.valueOf(schedule.runDate()), schedule.id()});
+            }
+            jdbcTemplate.batchUpdate(ADVANCE_SQL, advances);
+            invoices.forEach(clientNameIndex::indexed);
+            // En dernier : les compteurs de version des propriétaires ne restent verrouillés que jusqu'au commit
+            versionService.bumpAll(owners);
+            return due.size();
+        });
+        return count == null ? 0 : count;
+    }
+}
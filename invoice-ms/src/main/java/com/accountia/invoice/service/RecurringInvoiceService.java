@@ -0,0 +1,132 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.dto.RecurringInvoiceRequest;
+import com.accountia.invoice.dto.RecurringSchedulePage;
+import com.accountia.invoice.model.RecurringInvoiceSchedule;
+import com.accountia.invoice.repository.RecurringInvoiceScheduleRepository;
+import com.accountia.invoice.util.InvoiceCursor;
+import com.accountia.invoice.util.SecurityUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Gestion des modèles de factures récurrentes ; la génération est faite par {@code RecurringInvoiceJob}.
+ */
+@Service
+public class RecurringInvoiceService {
+
+    private static final Set<String> INVOICE_STATUSES = Set.of("DRAFT", "SENT");
+
+    private final RecurringInvoiceScheduleRepository scheduleRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public RecurringInvoiceService(RecurringInvoiceScheduleRepository scheduleRepository,
+                                   @Value("${invoice.pagination.default-size:50}") int defaultPageSize,
+                                   @Value("${invoice.pagination.max-size:200}") int maxPageSize) {
+        this.scheduleRepository = scheduleRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    // Même curseur que la liste des factures (keyset sur id décroissant), le tri et le filtre
+    // par tenant sont faits par la base sur idx_recurring_tenant_id / idx_recurring_owner_id
+    @Transactional(readOnly = true)
+    public RecurringSchedulePage getSchedules(String tenantId, String cursor, Integer size) {
+        long beforeId = InvoiceCursor.decode(cursor);
+        int pageSize = size == null || size <= 0 ? defaultPageSize : Math.min(size, maxPageSize);
+        Limit limit = Limit.of(pageSize + 1);
+        if (SecurityUtil.isAdmin()) {
+            // tenantId n'est pris en compte que si le jeton ne porte pas déjà un tenant
+            String tenant = SecurityUtil.getCurrentTenant();
+            if (tenant == null && tenantId != null && !tenantId.isBlank()) tenant = tenantId;
+            if (tenant != null) {
+                return toPage(scheduleRepository.findByTenantIdAndIdLessThanOrderByIdDesc(tenant, beforeId, limit),
+                        pageSize);
+            }
+            return toPage(scheduleRepository.findByIdLessThanOrderByIdDesc(beforeId, limit), pageSize);
+        }
+        String subject = SecurityUtil.getCurrentSubject();
+        if (subject == null || subject.isBlank()) return RecurringSchedulePage.empty();
+        return toPage(scheduleRepository.findByOwnerSubjectAndIdLessThanOrderByIdDesc(subject, beforeId, limit),
+                pageSize);
+    }
+
+    @Transactional
+    public RecurringInvoiceSchedule createSchedule(RecurringInvoiceRequest request) {
+        validate(request);
+        String tenant = SecurityUtil.getCurrentTenant();
+        LocalDate start = request.getStartDate() == null ? LocalDate.now() : request.getStartDate();
+
+        RecurringInvoiceSchedule schedule = new RecurringInvoiceSchedule();
+        schedule.setTenantId(tenant != null ? tenant : request.getTenantId());
+        schedule.setOwnerSubject(SecurityUtil.getCurrentSubject());
+        schedule.setClientName(request.getClientName());
+        schedule.setAmount(request.getAmount());
+        schedule.setDescription(request.getDescription());
+        schedule.setInvoiceStatus(request.getStatus() == null ? "DRAFT" : request.getStatus());
+        schedule.setIntervalMonths(request.getIntervalMonths() == null ? 1 : request.getIntervalMonths());
+        schedule.setDayOfMonth(start.getDayOfMonth());
+        schedule.setPaymentTermsDays(request.getPaymentTermsDays() == null ? 30 : request.getPaymentTermsDays());
+        schedule.setNextRunDate(start);
+        return scheduleRepository.save(schedule);
+    }
+
+    // Désactivation plutôt que suppression : l'historique (generatedCount, lastRunDate) reste consultable
+    @Transactional
+    public Optional<RecurringInvoiceSchedule> deactivateSchedule(Long id) {
+        return scheduleRepository.findById(id).map(schedule -> {
+            String tenant = SecurityUtil.getCurrentTenant();
+            boolean allowed = (tenant == null || tenant.equals(schedule.getTenantId()))
+                    && (SecurityUtil.isAdmin() || (SecurityUtil.getCurrentSubject() != null
+                    && SecurityUtil.getCurrentSubject().equals(schedule.getOwnerSubject())));
+            if (!allowed) {
+                throw new AccessDeniedException("Accès refusé : vous ne pouvez modifier que vos propres modèles");
+            }
+            schedule.setActive(false);
+            return schedule;
+        });
+    }
+
+    // Une ligne de plus que la page est lue pour savoir s'il existe une page suivante
+    private RecurringSchedulePage toPage(List<RecurringInvoiceSchedule> rows, int pageSize) {
+        if (rows.size() <= pageSize) {
+            return new RecurringSchedulePage(rows, null);
+        }
+        List<RecurringInvoiceSchedule> items = rows.subList(0, pageSize);
+        return new RecurringSchedulePage(items, InvoiceCursor.encode(items.get(pageSize - 1).getId()));
+    }
+
+    private void validate(RecurringInvoiceRequest request) {
+        if (request == null) throw new IllegalArgumentException("Modèle vide");
+        String tenant = SecurityUtil.getCurrentTenant();
+        boolean given = request.getTenantId() != null && !request.getTenantId().isBlank();
+        if (tenant == null && !given) throw new IllegalArgumentException("tenantId est obligatoire");
+        if (tenant != null && given && !tenant.equals(request.getTenantId())) {
+            throw new IllegalArgumentException("tenantId ne correspond pas au tenant de l'utilisateur");
+        }
+        if (request.getClientName() == null || request.getClientName().isBlank()) {
+            throw new IllegalArgumentException("clientName est obligatoire");
+        }
+        if (request.getAmount() == null || request.getAmount() <= 0) {
+            throw new IllegalArgumentException("amount doit être positif");
+        }
+        if (request.getStatus() != null && !INVOICE_STATUSES.contains(request.getStatus())) {
+            throw new IllegalArgumentException("status invalide : " + request.getStatus() + " (attendu : DRAFT, SENT)");
+        }
+        if (request.getIntervalMonths() != null && (request.getIntervalMonths() < 1 || request.getIntervalMonths() > 12)) {
+            throw new IllegalArgumentException("intervalMonths doit être compris entre 1 et 12");
+        }
+        if (request.getPaymentTermsDays() != null && request.getPaymentTermsDays() < 0) {
+            throw new IllegalArgumentException("paymentTermsDays ne peut pas être négatif");
+        }
+    }
+}
@@ -10,6 +10,9 @@ import java.util.Map;
 
 public class SecurityUtil {
 
+    // Claim du jeton Keycloak portant le tenant de l'utilisateur
+    public static final String TENANT_CLAIM = "tenant_id";
+
     public static String getCurrentSubject() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
@@ -21,6 +24,16 @@ public class SecurityUtil {
         return null;
     }
 
+    // Tenant de l'utilisateur courant, null si le jeton n'en porte pas (ni filtre ni contrôle de tenant)
+    public static String getCurrentTenant() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt) {
+            String tenant = jwt.getClaimAsString(TENANT_CLAIM);
+            return tenant == null || tenant.isBlank() ? null : tenant;
+        }
+        return null;
+    }
+
     public static boolean isAdmin() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         if (authentication == null || !authentication.isAuthenticated()) {
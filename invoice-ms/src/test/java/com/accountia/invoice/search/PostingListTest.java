@@ -0,0 +1,69 @@
+package com.accountia.invoice.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PostingListTest {
+
+    @Test
+    void keepsIdsSortedWhateverTheInsertionOrder() {
+        ClientNameIndex.PostingList list = new ClientNameIndex.PostingList();
+        for (long id : new long[]{10, 3, 7, 42, 1, 8}) list.add(id);
+
+        assertThat(ids(list)).containsExactly(1, 3, 7, 8, 10, 42);
+    }
+
+    @Test
+    void ignoresDuplicateIds() {
+        ClientNameIndex.PostingList list = new ClientNameIndex.PostingList();
+        list.add(5);
+        list.add(5);
+        list.add(2);
+        list.add(5);
+
+        assertThat(ids(list)).containsExactly(2, 5);
+    }
+
+    @Test
+    void growsBeyondItsInitialCapacity() {
+        ClientNameIndex.PostingList list = new ClientNameIndex.PostingList();
+        for (long id = 100; id > 0; id--) list.add(id);
+
+        assertThat(list.size).isEqualTo(100);
+        assertThat(ids(list)).isSorted().startsWith(1, 2, 3).endsWith(99, 100);
+    }
+
+    @Test
+    void removesFromAnyPosition() {
+        ClientNameIndex.PostingList list = new ClientNameIndex.PostingList();
+        for (long id : new long[]{1, 2, 3, 4, 5}) list.add(id);
+
+        list.remove(1);
+        list.remove(3);
+        list.remove(5);
+        list.remove(9);
+
+        assertThat(ids(list)).containsExactly(2, 4);
+        assertThat(list.contains(3)).isFalse();
+        assertThat(list.contains(4)).isTrue();
+    }
+
+    @Test
+    void lowerIndexFindsTheLargestIdBelowTheCursor() {
+        ClientNameIndex.PostingList list = new ClientNameIndex.PostingList();
+        for (long id : new long[]{10, 20, 30}) list.add(id);
+
+        assertThat(list.lowerIndex(Long.MAX_VALUE)).isEqualTo(2);
+        assertThat(list.lowerIndex(30)).isEqualTo(1);
+        assertThat(list.lowerIndex(25)).isEqualTo(1);
+        assertThat(list.lowerIndex(10)).isEqualTo(-1);
+        assertThat(list.lowerIndex(5)).isEqualTo(-1);
+    }
+
+    private static long[] ids(ClientNameIndex.PostingList list) {
+        return Arrays.copyOf(list.ids, list.size);
+    }
+}
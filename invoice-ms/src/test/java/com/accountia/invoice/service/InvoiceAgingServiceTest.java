@@ -0,0 +1,39 @@
+package com.accountia.invoice.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvoiceAgingServiceTest {
+
+    private static final String CURSOR_URL =
+            "jdbc:mysql://mysql:3306/accountia?useCursorFetch=true&rewriteBatchedStatements=true";
+
+    @Test
+    void keepsTheConfiguredFetchSizeWithCursorFetch() {
+        assertThat(InvoiceAgingService.effectiveFetchSize(1000, CURSOR_URL)).isEqualTo(1000);
+        assertThat(InvoiceAgingService.effectiveFetchSize(1000, CURSOR_URL, CURSOR_URL)).isEqualTo(1000);
+    }
+
+    @Test
+    void streamsRowByRowWhenCursorFetchIsMissing() {
+        // Sans useCursorFetch, Connector/J ignorerait la taille de lot et chargerait tout le résultat
+        assertThat(InvoiceAgingService.effectiveFetchSize(1000, "jdbc:mysql://mysql:3306/accountia"))
+                .isEqualTo(InvoiceAgingService.ROW_STREAMING);
+        assertThat(InvoiceAgingService.effectiveFetchSize(1000,
+                "jdbc:mysql://mysql:3306/accountia?useCursorFetch=false"))
+                .isEqualTo(InvoiceAgingService.ROW_STREAMING);
+    }
+
+    @Test
+    void checksTheReplicaUrlToo() {
+        assertThat(InvoiceAgingService.effectiveFetchSize(1000, CURSOR_URL, "jdbc:mysql://replica:3306/accountia"))
+                .isEqualTo(InvoiceAgingService.ROW_STREAMING);
+    }
+
+    @Test
+    void ignoresOtherDriversAndMissingUrls() {
+        assertThat(InvoiceAgingService.effectiveFetchSize(1000, "jdbc:h2:mem:testdb;MODE=MYSQL", null, ""))
+                .isEqualTo(1000);
+    }
+}
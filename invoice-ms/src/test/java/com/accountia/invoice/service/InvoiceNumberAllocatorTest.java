@@ -0,0 +1,147 @@
+package com.accountia.invoice.service;
+
+import com.accountia.invoice.dto.InvoiceNumberGap;
+import com.accountia.invoice.model.Invoice;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Numérotation par blocs et rapport des trous, sur H2 en mode MySQL (mêmes requêtes qu'en production).
+ */
+class InvoiceNumberAllocatorTest {
+
+    private static final String TENANT = "tenant-1";
+    private static final int YEAR = 2026;
+    private static final int BLOCK_SIZE = 5;
+
+    private DataSourceProperties properties;
+    private JdbcTemplate jdbcTemplate;
+    private final List<InvoiceNumberAllocator> allocators = new ArrayList<>();
+
+    @BeforeEach
+    void createSchema() {
+        properties = new DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:numbering-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=MYSQL");
+        properties.setUsername("sa");
+        properties.setPassword("");
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(properties.getUrl(), "sa", ""));
+
+        jdbcTemplate.execute("CREATE TABLE invoice_number_counters (tenant_id VARCHAR(64) NOT NULL,"
+                + " number_year INT NOT NULL, next_number BIGINT NOT NULL, PRIMARY KEY (tenant_id, number_year))");
+        jdbcTemplate.execute("CREATE TABLE invoice_number_blocks (id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " tenant_id VARCHAR(64) NOT NULL, number_year INT NOT NULL, first_number BIGINT NOT NULL,"
+                + " last_number BIGINT NOT NULL, instance_id VARCHAR(64) NOT NULL, reserved_at TIMESTAMP NOT NULL,"
+                + " released_at TIMESTAMP, next_unused BIGINT)");
+        jdbcTemplate.execute("CREATE TABLE invoices (id BIGINT AUTO_INCREMENT PRIMARY KEY,"
+                + " tenant_id VARCHAR(64) NOT NULL, invoice_number VARCHAR(32))");
+    }
+
+    @AfterEach
+    void closePools() {
+        allocators.forEach(InvoiceNumberAllocator::destroy);
+        jdbcTemplate.execute("SHUTDOWN");
+    }
+
+    @Test
+    void numbersAreSequentialAcrossBlocks() {
+        InvoiceNumberAllocator allocator = allocator();
+
+        assertThat(issue(allocator, 7)).containsExactly(
+                "2026-000001", "2026-000002", "2026-000003", "2026-000004", "2026-000005",
+                "2026-000006", "2026-000007");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM invoice_number_blocks", Integer.class))
+                .isEqualTo(2);
+    }
+
+    @Test
+    void reportsNumbersLostInsideAnExhaustedBlock() {
+        InvoiceNumberAllocator allocator = allocator();
+        List<String> numbers = issue(allocator, 7);
+        // 2026-000003 distribué puis perdu (transaction annulée)
+        numbers.stream().filter(n -> !n.equals("2026-000003")).forEach(this::saveInvoice);
+
+        assertThat(allocator.findGaps(TENANT, YEAR))
+                .extracting(InvoiceNumberGap::fromNumber, InvoiceNumberGap::toNumber, InvoiceNumberGap::reason)
+                .containsExactly(tuple(3L, 3L, InvoiceNumberAllocator.GAP_MISSING));
+    }
+
+    @Test
+    void reportsTheUnusedTailOfAReleasedBlock() {
+        InvoiceNumberAllocator stopped = new InvoiceNumberAllocator(jdbcTemplate, properties, BLOCK_SIZE, 1);
+        issue(stopped, 2).forEach(this::saveInvoice);
+        stopped.destroy();
+
+        assertThat(allocator().findGaps(TENANT, YEAR))
+                .extracting(InvoiceNumberGap::fromNumber, InvoiceNumberGap::toNumber, InvoiceNumberGap::reason)
+                .containsExactly(tuple(3L, 5L, InvoiceNumberAllocator.GAP_NOT_ISSUED));
+    }
+
+    @Test
+    void reportsBlocksOpenedByAnotherInstance() {
+        // Instance arrêtée brutalement : son bloc n'a jamais été rendu
+        InvoiceNumberAllocator crashed = allocator();
+        issue(crashed, 1).forEach(this::saveInvoice);
+
+        InvoiceNumberAllocator other = allocator();
+        List<String> ownNumbers = issue(other, 1);
+        ownNumbers.forEach(this::saveInvoice);
+
+        // Vu depuis "other" : le bloc de "crashed" est ouvert ; le sien est en cours, sans trou
+        assertThat(ownNumbers).containsExactly("2026-000006");
+        assertThat(other.findGaps(TENANT, YEAR))
+                .extracting(InvoiceNumberGap::fromNumber, InvoiceNumberGap::toNumber, InvoiceNumberGap::reason)
+                .containsExactly(tuple(2L, 5L, InvoiceNumberAllocator.GAP_OPEN_BLOCK));
+    }
+
+    @Test
+    void largeBatchesGetOneContiguousReleasedBlock() {
+        InvoiceNumberAllocator allocator = allocator();
+        List<Invoice> batch = new ArrayList<>();
+        for (int i = 0; i < 12; i++) batch.add(invoice());
+        allocator.assignNumbers(batch);
+        batch.forEach(invoice -> saveInvoice(invoice.getInvoiceNumber()));
+
+        assertThat(batch.get(0).getInvoiceNumber()).isEqualTo("2026-000001");
+        assertThat(batch.get(11).getInvoiceNumber()).isEqualTo("2026-000012");
+        assertThat(allocator.findGaps(TENANT, YEAR)).isEmpty();
+    }
+
+    private InvoiceNumberAllocator allocator() {
+        InvoiceNumberAllocator allocator = new InvoiceNumberAllocator(jdbcTemplate, properties, BLOCK_SIZE, 1);
+        allocators.add(allocator);
+        return allocator;
+    }
+
+    private List<String> issue(InvoiceNumberAllocator allocator, int count) {
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Invoice invoice = invoice();
+            allocator.assignNumber(invoice);
+            numbers.add(invoice.getInvoiceNumber());
+        }
+        return numbers;
+    }
+
+    private static Invoice invoice() {
+        Invoice invoice = new Invoice();
+        invoice.setTenantId(TENANT);
+        invoice.setIssueDate(LocalDate.of(YEAR, 3, 15));
+        return invoice;
+    }
+
+    private void saveInvoice(String number) {
+        jdbcTemplate.update("INSERT INTO invoices (tenant_id, invoice_number) VALUES (?, ?)", TENANT, number);
+    }
+}
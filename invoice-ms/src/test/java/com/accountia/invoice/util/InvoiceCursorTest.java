@@ -0,0 +1,46 @@
+package com.accountia.invoice.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InvoiceCursorTest {
+
+    @Test
+    void roundTripsTheLastId() {
+        assertThat(InvoiceCursor.decode(InvoiceCursor.encode(42L))).isEqualTo(42L);
+        assertThat(InvoiceCursor.decode(InvoiceCursor.encode(Long.MAX_VALUE - 1))).isEqualTo(Long.MAX_VALUE - 1);
+    }
+
+    @Test
+    void encodedCursorIsUrlSafe() {
+        assertThat(InvoiceCursor.encode(123_456_789L)).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void missingCursorStartsAtTheFirstPage() {
+        assertThat(InvoiceCursor.decode(null)).isEqualTo(Long.MAX_VALUE);
+        assertThat(InvoiceCursor.decode("")).isEqualTo(Long.MAX_VALUE);
+        assertThat(InvoiceCursor.decode("  ")).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        // Base64 invalide, préfixe absent, id non numérique : toujours IllegalArgumentException (400)
+        assertThatThrownBy(() -> InvoiceCursor.decode("***"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Curseur de pagination invalide");
+        assertThatThrownBy(() -> InvoiceCursor.decode(encodeRaw("42")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> InvoiceCursor.decode(encodeRaw("v1:abc")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encodeRaw(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}